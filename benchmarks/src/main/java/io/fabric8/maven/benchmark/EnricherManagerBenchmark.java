@@ -0,0 +1,79 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.kubernetes.api.model.KubernetesList;
+import io.fabric8.kubernetes.api.model.KubernetesListBuilder;
+import io.fabric8.maven.core.util.PluginServiceFactory;
+import io.fabric8.maven.enricher.api.Enricher;
+import io.fabric8.maven.enricher.api.EnricherContext;
+import io.fabric8.maven.plugin.enricher.EnricherManager;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Enrichment of a set of resources from the creation of the enrichers up to the final build
+ * and the lookup of the enrichers alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EnricherManagerBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int size;
+
+    private SyntheticProject project;
+    private EnricherContext context;
+    private KubernetesList resources;
+
+    @Setup
+    public void setup() throws IOException {
+        project = new SyntheticProject(size);
+        context = project.createEnricherContext();
+        resources = project.createResources();
+    }
+
+    @TearDown
+    public void tearDown() {
+        project.delete();
+    }
+
+    @Benchmark
+    public KubernetesList enrich() {
+        EnricherManager manager = new EnricherManager(context);
+        KubernetesListBuilder builder = new KubernetesListBuilder().withItems(resources.getItems());
+        manager.addDefaultResources(builder);
+        manager.enrichLabelsAndSelectors(builder);
+        manager.adapt(builder);
+        return builder.build();
+    }
+
+    @Benchmark
+    public List<Enricher> createServiceObjects() {
+        PluginServiceFactory<EnricherContext> factory = new PluginServiceFactory<>(context);
+        return factory.createServiceObjects("META-INF/fabric8-enricher-default",
+                                            "META-INF/fabric8/enricher-default",
+                                            "META-INF/fabric8-enricher",
+                                            "META-INF/fabric8/enricher");
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.kubernetes.api.model.KubernetesList;
+import io.fabric8.kubernetes.api.model.KubernetesListBuilder;
+import io.fabric8.maven.core.util.KubernetesResourceUtil;
+import org.openjdk.jmh.annotations.*;
+
+import static io.fabric8.maven.core.util.ResourceFileType.json;
+import static io.fabric8.maven.core.util.ResourceFileType.yaml;
+
+/**
+ * Reading of resource fragments and writing of the resource descriptors
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class KubernetesResourceUtilBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int size;
+
+    private SyntheticProject project;
+    private File[] fragments;
+    private KubernetesList resources;
+    private File target;
+
+    @Setup
+    public void setup() throws IOException {
+        project = new SyntheticProject(size);
+        fragments = KubernetesResourceUtil.listResourceFragments(project.writeFragments());
+        resources = project.createResources();
+        target = new File(project.getBaseDir(), "target/kubernetes");
+    }
+
+    @TearDown
+    public void tearDown() {
+        project.delete();
+    }
+
+    @Benchmark
+    public KubernetesListBuilder readFragments() throws IOException {
+        return KubernetesResourceUtil.readResourceFragmentsFrom(KubernetesResourceUtil.API_VERSION,
+                                                                KubernetesResourceUtil.API_EXTENSIONS_VERSION,
+                                                                fragments);
+    }
+
+    @Benchmark
+    public File[] writeYamlAndJson() throws IOException {
+        return KubernetesResourceUtil.writeResource(resources, target, yaml, json);
+    }
+}
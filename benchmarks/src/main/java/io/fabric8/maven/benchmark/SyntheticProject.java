@@ -0,0 +1,194 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.fabric8.kubernetes.api.model.*;
+import io.fabric8.kubernetes.api.model.extensions.Deployment;
+import io.fabric8.kubernetes.api.model.extensions.DeploymentBuilder;
+import io.fabric8.maven.core.config.ProcessorConfig;
+import io.fabric8.maven.core.config.ResourceConfig;
+import io.fabric8.maven.docker.config.ImageConfiguration;
+import io.fabric8.maven.docker.util.AnsiLogger;
+import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.maven.enricher.api.EnricherContext;
+import io.fabric8.utils.Files;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Synthetic project with a given number of resources, used as input for the benchmarks.
+ * Resources are a mix of deployments, replica sets, services and config maps.
+ */
+public class SyntheticProject {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final File baseDir;
+    private final int size;
+
+    public SyntheticProject(int size) throws IOException {
+        this.size = size;
+        this.baseDir = java.nio.file.Files.createTempDirectory("f8-bench").toFile();
+    }
+
+    public File getBaseDir() {
+        return baseDir;
+    }
+
+    /**
+     * Write all resources as YAML fragments into src/main/fabric8
+     *
+     * @return the fragment directory
+     */
+    public File writeFragments() throws IOException {
+        File dir = new File(baseDir, "src/main/fabric8");
+        if (!dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        for (int i = 0; i < size; i++) {
+            String name = "app" + i;
+            String fragment;
+            switch (i % 4) {
+                case 0:
+                    fragment = "spec:\n" +
+                               "  replicas: 1\n" +
+                               "  template:\n" +
+                               "    spec:\n" +
+                               "      containers:\n" +
+                               "      - name: " + name + "\n" +
+                               "        image: fabric8/" + name + ":1.0\n";
+                    Files.writeToFile(new File(dir, name + "-deployment.yml"), fragment, UTF8);
+                    break;
+                case 1:
+                    fragment = "spec:\n" +
+                               "  ports:\n" +
+                               "  - port: 80\n" +
+                               "    targetPort: 8080\n";
+                    Files.writeToFile(new File(dir, name + "-svc.yml"), fragment, UTF8);
+                    break;
+                case 2:
+                    fragment = "data:\n" +
+                               "  key: value" + i + "\n";
+                    Files.writeToFile(new File(dir, name + "-cm.yml"), fragment, UTF8);
+                    break;
+                default:
+                    fragment = "spec:\n" +
+                               "  replicas: 2\n" +
+                               "  template:\n" +
+                               "    spec:\n" +
+                               "      containers:\n" +
+                               "      - name: " + name + "\n" +
+                               "        image: fabric8/" + name + ":1.0\n";
+                    Files.writeToFile(new File(dir, name + "-rs.yml"), fragment, UTF8);
+            }
+        }
+        return dir;
+    }
+
+    /**
+     * Create the resources directly as model objects
+     *
+     * @return resources
+     */
+    public KubernetesList createResources() {
+        List<HasMetadata> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String name = "app" + i;
+            switch (i % 4) {
+                case 0:
+                    items.add(createDeployment(name));
+                    break;
+                case 1:
+                    items.add(new ServiceBuilder()
+                                  .withNewMetadata().withName(name).endMetadata()
+                                  .withNewSpec()
+                                    .addNewPort().withPort(80).withNewTargetPort(8080).endPort()
+                                  .endSpec()
+                                  .build());
+                    break;
+                case 2:
+                    items.add(new ConfigMapBuilder()
+                                  .withNewMetadata().withName(name).endMetadata()
+                                  .addToData("key", "value" + i)
+                                  .build());
+                    break;
+                default:
+                    items.add(new io.fabric8.kubernetes.api.model.extensions.ReplicaSetBuilder()
+                                  .withNewMetadata().withName(name).endMetadata()
+                                  .withNewSpec()
+                                    .withReplicas(2)
+                                    .withTemplate(createPodTemplate(name))
+                                  .endSpec()
+                                  .build());
+            }
+        }
+        return new KubernetesListBuilder().withItems(items).build();
+    }
+
+    /**
+     * Create an enricher context for this project
+     */
+    public EnricherContext createEnricherContext() {
+        MavenProject project = new MavenProject();
+        project.setGroupId("io.fabric8.benchmark");
+        project.setArtifactId("synthetic-" + size);
+        project.setVersion("1.0.0");
+        project.setFile(new File(baseDir, "pom.xml"));
+        project.getBuild().setDirectory(new File(baseDir, "target").getAbsolutePath());
+        project.getBuild().setOutputDirectory(new File(baseDir, "target/classes").getAbsolutePath());
+        return new EnricherContext(project,
+                                   new ProcessorConfig(),
+                                   Collections.<ImageConfiguration>emptyList(),
+                                   new ResourceConfig.Builder().build(),
+                                   createLogger());
+    }
+
+    /**
+     * Remove all files created for this project
+     */
+    public void delete() {
+        Files.recursiveDelete(baseDir);
+    }
+
+    private Deployment createDeployment(String name) {
+        return new DeploymentBuilder()
+            .withNewMetadata().withName(name).endMetadata()
+            .withNewSpec()
+              .withReplicas(1)
+              .withTemplate(createPodTemplate(name))
+            .endSpec()
+            .build();
+    }
+
+    private PodTemplateSpec createPodTemplate(String name) {
+        return new PodTemplateSpecBuilder()
+            .withNewSpec()
+              .addNewContainer().withName(name).withImage("fabric8/" + name + ":1.0").endContainer()
+            .endSpec()
+            .build();
+    }
+
+    private static Logger createLogger() {
+        return new AnsiLogger(new SystemStreamLog(), false, false, "F8> ");
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.plugin;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.kubernetes.api.model.KubernetesList;
+import io.fabric8.maven.benchmark.SyntheticProject;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Conversion of the Kubernetes resources to their OpenShift counterparts. Lives in the
+ * plugin's package since the conversion is not part of the public API.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OpenShiftConversionBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int size;
+
+    private SyntheticProject project;
+    private KubernetesList resources;
+
+    @Setup
+    public void setup() throws IOException {
+        project = new SyntheticProject(size);
+        resources = project.createResources();
+    }
+
+    @TearDown
+    public void tearDown() {
+        project.delete();
+    }
+
+    @Benchmark
+    public KubernetesList convertToOpenShiftResources() {
+        return ResourceMojo.convertToOpenShiftResources(resources);
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.core.util;
+
+import java.io.*;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Index of all classes and resources on a classpath. The entries of jar files are read from their
+ * central directory, directories are walked. Entries are kept in sorted arrays so that a lookup is a binary
+ * search without any class loading. Since reading the jars is the expensive part, their entries can be persisted
+ * and are reused as long as no jar on the classpath has changed. Directories are always walked freshly.
+ */
+public class ClasspathIndex {
+
+    private final List<File> elements;
+
+    private final Part jarEntries;
+    private final Part dirEntries;
+
+    private ClasspathIndex(List<File> elements, Part jarEntries, Part dirEntries) {
+        this.elements = elements;
+        this.jarEntries = jarEntries;
+        this.dirEntries = dirEntries;
+    }
+
+    /**
+     * Create an index for the given classpath
+     *
+     * @param classpathElements classpath elements (jars or directories) in classpath order
+     * @param indexFile file where the jar entries are persisted, can be null if the index should not be stored
+     * @return the index
+     */
+    public static ClasspathIndex create(List<String> classpathElements, File indexFile) throws IOException {
+        List<File> elements = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (String element : classpathElements) {
+            if (element != null && seen.add(element)) {
+                elements.add(new File(element));
+            }
+        }
+        // Fingerprint over the classpath order and the path, size and modification time of all jars
+        String fingerprint = createJarFingerprint(elements);
+        Part jars = indexFile != null ? readJarEntries(indexFile, fingerprint) : null;
+        if (jars == null) {
+            jars = indexJars(elements);
+            if (indexFile != null) {
+                writeJarEntries(indexFile, fingerprint, jars);
+            }
+        }
+        return new ClasspathIndex(elements, jars, indexDirectories(elements));
+    }
+
+    /**
+     * Check whether a class is on the classpath
+     *
+     * @param className fully qualified class name
+     * @return true if the class file is on the classpath
+     */
+    public boolean hasClass(String className) {
+        return hasResource(className.replace('.', '/') + ".class");
+    }
+
+    /**
+     * Check whether a resource is on the classpath
+     *
+     * @param path resource path with '/' as separator, without a leading '/'
+     * @return true if the resource is on the classpath
+     */
+    public boolean hasResource(String path) {
+        return getElementIndex(path) >= 0;
+    }
+
+    /**
+     * Get the URL of a resource like {@link ClassLoader#getResource(String)} would return it
+     *
+     * @param path resource path with '/' as separator, without a leading '/'
+     * @return URL of the first occurence of the resource on the classpath or null if not found
+     */
+    public URL findResource(String path) {
+        int idx = getElementIndex(path);
+        if (idx < 0) {
+            return null;
+        }
+        File element = elements.get(idx);
+        try {
+            return element.isDirectory() ?
+                new File(element, path).toURI().toURL() :
+                new URL("jar:" + element.toURI().toURL() + "!/" + path);
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException(String.format("Cannot create URL for %s in %s: %s", path, element, e.getMessage()), e);
+        }
+    }
+
+    // ==========================================================================================
+
+    // Index of the first classpath element holding the entry
+    private int getElementIndex(String path) {
+        int jarIdx = jarEntries.getElementIndex(path);
+        int dirIdx = dirEntries.getElementIndex(path);
+        if (jarIdx < 0) {
+            return dirIdx;
+        }
+        return dirIdx < 0 ? jarIdx : Math.min(jarIdx, dirIdx);
+    }
+
+    private static String createJarFingerprint(List<File> elements) {
+        Fingerprint fingerprint = new Fingerprint();
+        for (File element : elements) {
+            if (element.isFile()) {
+                fingerprint.add("jar", element.getAbsolutePath())
+                           .add("size", Long.toString(element.length()))
+                           .add("modified", Long.toString(element.lastModified()));
+            } else {
+                fingerprint.add("dir", element.getAbsolutePath());
+            }
+        }
+        return fingerprint.asHex();
+    }
+
+    private static Part indexJars(List<File> elements) throws IOException {
+        PartBuilder builder = new PartBuilder();
+        for (int i = 0; i < elements.size(); i++) {
+            File element = elements.get(i);
+            if (element.isFile()) {
+                try (ZipFile zip = new ZipFile(element)) {
+                    Enumeration<? extends ZipEntry> entries = zip.entries();
+                    while (entries.hasMoreElements()) {
+                        ZipEntry entry = entries.nextElement();
+                        if (!entry.isDirectory()) {
+                            builder.add(entry.getName(), i);
+                        }
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static Part indexDirectories(List<File> elements) throws IOException {
+        final PartBuilder builder = new PartBuilder();
+        for (int i = 0; i < elements.size(); i++) {
+            File element = elements.get(i);
+            if (element.isDirectory()) {
+                final Path root = element.toPath();
+                final int idx = i;
+                java.nio.file.Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        if (attrs.isRegularFile()) {
+                            builder.add(root.relativize(file).toString().replace(File.separatorChar, '/'), idx);
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            }
+        }
+        return builder.build();
+    }
+
+    // Returns null if there is no index file or it has been created for a different set of jars
+    private static Part readJarEntries(File indexFile, String fingerprint) {
+        if (!indexFile.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (!fingerprint.equals(in.readUTF())) {
+                return null;
+            }
+            int size = in.readInt();
+            String[] names = new String[size];
+            int[] elementIdx = new int[size];
+            for (int i = 0; i < size; i++) {
+                names[i] = in.readUTF();
+                elementIdx[i] = in.readInt();
+            }
+            return new Part(names, elementIdx);
+        } catch (IOException e) {
+            // Broken index, will be recreated
+            return null;
+        }
+    }
+
+    private static void writeJarEntries(File indexFile, String fingerprint, Part part) throws IOException {
+        File dir = indexFile.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Cannot create directory " + dir);
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)))) {
+            out.writeUTF(fingerprint);
+            out.writeInt(part.names.length);
+            for (int i = 0; i < part.names.length; i++) {
+                out.writeUTF(part.names[i]);
+                out.writeInt(part.elementIdx[i]);
+            }
+        }
+    }
+
+    // Sorted entry names together with the index of the first classpath element holding them
+    private static class Part {
+        private final String[] names;
+        private final int[] elementIdx;
+
+        private Part(String[] names, int[] elementIdx) {
+            this.names = names;
+            this.elementIdx = elementIdx;
+        }
+
+        private int getElementIndex(String name) {
+            int idx = Arrays.binarySearch(names, name);
+            return idx >= 0 ? elementIdx[idx] : -1;
+        }
+    }
+
+    private static class PartBuilder {
+        // Only the first occurence counts, like for a class loader
+        private final Map<String, Integer> entries = new HashMap<>();
+
+        private void add(String name, int elementIdx) {
+            if (!entries.containsKey(name)) {
+                entries.put(name, elementIdx);
+            }
+        }
+
+        private Part build() {
+            String[] names = entries.keySet().toArray(new String[entries.size()]);
+            Arrays.sort(names);
+            int[] elementIdx = new int[names.length];
+            for (int i = 0; i < names.length; i++) {
+                elementIdx[i] = entries.get(names[i]);
+            }
+            return new Part(names, elementIdx);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.core.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.fabric8.utils.Files;
+
+/**
+ * Accumulates a SHA-256 digest over the inputs of a computation so that a later run
+ * can detect whether anything relevant has changed. Every value is added together with a
+ * label so that shifting a value from one input to another changes the fingerprint, too.
+ */
+public class Fingerprint {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    // Serializes configuration objects field by field in a stable order
+    private static final ObjectMapper FIELD_MAPPER = new ObjectMapper()
+        .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+        .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+        .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+        .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+        .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+
+    private final MessageDigest digest;
+
+    public Fingerprint() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No SHA-256 digest available: " + e, e);
+        }
+    }
+
+    public Fingerprint add(String label, String value) {
+        update(label);
+        update(value != null ? value : "<null>");
+        return this;
+    }
+
+    /**
+     * Add the name and content of a file. A missing file is recorded as such.
+     *
+     * @param label label for this input
+     * @param file file to add
+     * @return this fingerprint
+     * @throws IOException if the file cannot be read
+     */
+    public Fingerprint add(String label, File file) throws IOException {
+        update(label);
+        if (file == null || !file.isFile()) {
+            update("<missing>");
+            return this;
+        }
+        update(file.getName());
+        byte[] buffer = new byte[8192];
+        try (InputStream is = new FileInputStream(file)) {
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return this;
+    }
+
+    public Fingerprint add(String label, byte[] value) {
+        update(label);
+        update(Integer.toString(value.length));
+        digest.update(value);
+        return this;
+    }
+
+    /**
+     * Add a map in key order.
+     */
+    public Fingerprint add(String label, Map<?, ?> map) {
+        update(label);
+        if (map == null) {
+            update("<null>");
+            return this;
+        }
+        TreeMap<String, String> sorted = new TreeMap<>();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            sorted.put(String.valueOf(entry.getKey()), String.valueOf(entry.getValue()));
+        }
+        for (Map.Entry<String, String> entry : sorted.entrySet()) {
+            update(entry.getKey());
+            update(entry.getValue());
+        }
+        return this;
+    }
+
+    public Fingerprint add(String label, Properties properties) {
+        return add(label, (Map<?, ?>) properties);
+    }
+
+    /**
+     * Add only those properties whose keys start with one of the given prefixes, in key order.
+     *
+     * @param label label for this input
+     * @param properties properties to filter, can be null
+     * @param prefixes key prefixes to include
+     * @return this fingerprint
+     */
+    public Fingerprint add(String label, Properties properties, String ... prefixes) {
+        Map<String, String> selected = new TreeMap<>();
+        if (properties != null) {
+            for (String key : properties.stringPropertyNames()) {
+                for (String prefix : prefixes) {
+                    if (key.startsWith(prefix)) {
+                        selected.put(key, properties.getProperty(key));
+                        break;
+                    }
+                }
+            }
+        }
+        return add(label, selected);
+    }
+
+    /**
+     * Add a configuration object by serializing all its fields. Objects which
+     * cannot be serialized are added with their string representation.
+     */
+    public Fingerprint addObject(String label, Object object) {
+        update(label);
+        try {
+            update(FIELD_MAPPER.writeValueAsString(object));
+        } catch (JsonProcessingException e) {
+            update(String.valueOf(object));
+        }
+        return this;
+    }
+
+    /**
+     * @return the fingerprint as hex string
+     */
+    public String asHex() {
+        byte[] hash = cloneDigest().digest();
+        StringBuilder ret = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            ret.append(String.format("%02x", b));
+        }
+        return ret.toString();
+    }
+
+    /**
+     * Check whether the fingerprint stored in the given file matches this one
+     *
+     * @param file file holding a previously stored fingerprint
+     * @return true if the file exists and holds the same fingerprint
+     */
+    public boolean matches(File file) throws IOException {
+        if (!file.isFile()) {
+            return false;
+        }
+        String stored = new String(java.nio.file.Files.readAllBytes(file.toPath()), UTF8);
+        return asHex().equals(stored.trim());
+    }
+
+    /**
+     * Store this fingerprint in a file
+     *
+     * @param file file to write to
+     */
+    public void store(File file) throws IOException {
+        File dir = file.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Cannot create directory " + dir);
+        }
+        Files.writeToFile(file, asHex(), UTF8);
+    }
+
+    // ===============================================================================
+
+    private void update(String value) {
+        byte[] bytes = value.getBytes(UTF8);
+        // length prefix so that concatenations can't collide
+        digest.update((byte) (bytes.length >>> 24));
+        digest.update((byte) (bytes.length >>> 16));
+        digest.update((byte) (bytes.length >>> 8));
+        digest.update((byte) bytes.length);
+        digest.update(bytes);
+    }
+
+    private MessageDigest cloneDigest() {
+        try {
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("Cannot clone digest: " + e, e);
+        }
+    }
+}
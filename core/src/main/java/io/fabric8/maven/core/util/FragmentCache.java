@@ -0,0 +1,219 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.core.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+
+/**
+ * On-disk cache for parsed resource fragments. Entries are keyed by a hash over the fragment's
+ * file name, its content and the API version defaults so that an unchanged fragment doesn't need
+ * to be parsed again. Entries are stored in compact JSON which is considerably faster to read
+ * than the YAML source. Each entry records the class the fragment was bound to, so that a hit
+ * is read back into exactly the same class as the original parse. The cache is bounded in size, least recently used entries are evicted
+ * first when calling {@link #trim()}.
+ *
+ * This class can be used concurrently.
+ */
+public class FragmentCache {
+
+    // Bumped whenever the format of the cached entries changes
+    private static final String CACHE_VERSION = "2";
+
+    private static final String ENTRY_SUFFIX = ".json";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Fields of an entry
+    private static final String TYPE_FIELD = "type";
+    private static final String RESOURCE_FIELD = "resource";
+
+    // Classes of cached resources, by name
+    private static final ConcurrentMap<String, Class<? extends HasMetadata>> TYPES = new ConcurrentHashMap<>();
+
+    private final File cacheDir;
+    private final long maxSize;
+
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * Create a cache
+     *
+     * @param cacheDir directory where to store the entries
+     * @param maxSize maximum size in bytes of all entries
+     */
+    public FragmentCache(File cacheDir, long maxSize) {
+        this.cacheDir = cacheDir;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Calculate the key for a fragment
+     *
+     * @param fileName name of the fragment file
+     * @param content content of the fragment
+     * @param apiVersion default api version
+     * @param apiExtensionsVersion default api version for extensions
+     * @return key to use for lookup
+     */
+    public String createKey(String fileName, byte[] content, String apiVersion, String apiExtensionsVersion) {
+        Fingerprint fingerprint = new Fingerprint()
+            .add("version", CACHE_VERSION)
+            .add("model", HasMetadata.class.getPackage().getImplementationVersion())
+            .add("apiVersion", apiVersion)
+            .add("apiExtensionsVersion", apiExtensionsVersion)
+            .add("name", fileName);
+        return fingerprint.add("content", content).asHex();
+    }
+
+    /**
+     * Lookup a cached fragment
+     *
+     * @param key key as created with {@link #createKey(String, byte[], String, String)}
+     * @return the fragment or null if not cached
+     */
+    public HasMetadata get(String key) {
+        File entry = getEntryFile(key);
+        if (entry.isFile()) {
+            try {
+                JsonNode node = MAPPER.readTree(entry);
+                HasMetadata ret = MAPPER.treeToValue(node.get(RESOURCE_FIELD), getType(node.get(TYPE_FIELD)));
+                // Mark as recently used
+                entry.setLastModified(System.currentTimeMillis());
+                hits.incrementAndGet();
+                return ret;
+            } catch (IOException e) {
+                // Corrupt entry, will be overwritten
+                entry.delete();
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Store a fragment in the cache. Failures to write are ignored since the cache is only an optimization.
+     *
+     * @param key key as created with {@link #createKey(String, byte[], String, String)}
+     * @param resource the fragment to store
+     */
+    public void put(String key, HasMetadata resource) {
+        if (!cacheDir.exists() && !cacheDir.mkdirs() && !cacheDir.exists()) {
+            return;
+        }
+        File entry = getEntryFile(key);
+        File tmp = null;
+        try {
+            tmp = File.createTempFile(key, ".tmp", cacheDir);
+            try (OutputStream os = Files.newOutputStream(tmp.toPath());
+                 JsonGenerator generator = MAPPER.getFactory().createGenerator(os)) {
+                generator.writeStartObject();
+                generator.writeStringField(TYPE_FIELD, resource.getClass().getName());
+                generator.writeFieldName(RESOURCE_FIELD);
+                MAPPER.writeValue(generator, resource);
+                generator.writeEndObject();
+            }
+            Files.move(tmp.toPath(), entry.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            if (tmp != null) {
+                tmp.delete();
+            }
+        }
+    }
+
+    /**
+     * Evict the least recently used entries until the cache fits into its maximum size
+     */
+    public void trim() {
+        File[] entries = cacheDir.listFiles();
+        if (entries == null) {
+            return;
+        }
+        long size = 0;
+        for (File entry : entries) {
+            size += entry.length();
+        }
+        if (size <= maxSize) {
+            return;
+        }
+        Arrays.sort(entries, new Comparator<File>() {
+            @Override
+            public int compare(File f1, File f2) {
+                long m1 = f1.lastModified();
+                long m2 = f2.lastModified();
+                return m1 < m2 ? -1 : (m1 == m2 ? 0 : 1);
+            }
+        });
+        for (File entry : entries) {
+            if (size <= maxSize) {
+                break;
+            }
+            long length = entry.length();
+            if (entry.delete()) {
+                size -= length;
+            }
+        }
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    // Class a cached resource has been bound to
+    private static Class<? extends HasMetadata> getType(JsonNode typeNode) throws IOException {
+        if (typeNode == null || !typeNode.isTextual()) {
+            throw new IOException("No type given");
+        }
+        String name = typeNode.asText();
+        Class<? extends HasMetadata> ret = TYPES.get(name);
+        if (ret == null) {
+            try {
+                Class<?> type = Class.forName(name, false, HasMetadata.class.getClassLoader());
+                if (!HasMetadata.class.isAssignableFrom(type)) {
+                    throw new IOException(name + " is not a Kubernetes resource");
+                }
+                ret = type.asSubclass(HasMetadata.class);
+                TYPES.putIfAbsent(name, ret);
+            } catch (ClassNotFoundException e) {
+                throw new IOException("Unknown type " + name, e);
+            }
+        }
+        return ret;
+    }
+
+    private File getEntryFile(String key) {
+        return new File(cacheDir, key + ENTRY_SUFFIX);
+    }
+}
@@ -16,29 +16,45 @@
 
 package io.fabric8.maven.core.util;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
-import java.nio.charset.Charset;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import io.fabric8.kubernetes.api.KubernetesHelper;
 import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.KubernetesList;
 import io.fabric8.kubernetes.api.model.KubernetesListBuilder;
-import io.fabric8.utils.Files;
 import io.fabric8.utils.Strings;
 import org.apache.maven.shared.utils.StringUtils;
 
@@ -53,6 +69,12 @@ public class KubernetesResourceUtil {
     public static final String API_VERSION = "v1";
     public static final String API_EXTENSIONS_VERSION = "extensions/v1beta1";
 
+    // Buffer size used when streaming resources to a file
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    // Pool for parsing fragments concurrently, created on first use
+    private static ExecutorService fragmentExecutor;
+
     /**
      * Read all Kubernetes resource fragments from a directory and create a {@link KubernetesListBuilder} which
      * can be adapted later.
@@ -64,18 +86,142 @@ public class KubernetesResourceUtil {
      */
     public static KubernetesListBuilder readResourceFragmentsFrom(String apiVersion,
                                                                   String apiExtensionsVersion, File[] resourceFiles) throws IOException {
+        return readResourceFragmentsFrom(apiVersion, apiExtensionsVersion, resourceFiles, null);
+    }
+
+    /**
+     * Same as {@link #readResourceFragmentsFrom(String, String, File[])} but fragments which haven't changed
+     * since they were parsed the last time are taken from the given cache.
+     *
+     * @param apiVersion the api version to use
+     * @param apiExtensionsVersion the api version to use for extensions
+     * @param resourceFiles files to add.
+     * @param cache cache for parsed fragments, can be null
+     * @return the list builder
+     * @throws IOException
+     */
+    public static KubernetesListBuilder readResourceFragmentsFrom(String apiVersion, String apiExtensionsVersion,
+                                                                  File[] resourceFiles, FragmentCache cache) throws IOException {
         KubernetesListBuilder k8sBuilder = new KubernetesListBuilder();
         if (resourceFiles != null) {
-            List<HasMetadata> items = new ArrayList<>();
-            for (File file : resourceFiles) {
-                HasMetadata resource = getKubernetesResource(apiVersion, apiExtensionsVersion, file);
-                items.add(resource);
-            }
-            k8sBuilder.withItems(items);
+            k8sBuilder.withItems(readFragments(apiVersion, apiExtensionsVersion, resourceFiles, null, cache));
         }
         return k8sBuilder;
     }
 
+    /**
+     * Read Kubernetes resource fragments whose content has been already loaded, e.g. because it has been
+     * filtered in memory. The files are only used for their name, from which default values are extracted.
+     *
+     * @param apiVersion the api version to use
+     * @param apiExtensionsVersion the api version to use for extensions
+     * @param fragments fragment files with their content, in the order in which the resources should be returned
+     * @param cache cache for parsed fragments, can be null
+     * @return the resources read
+     * @throws IOException
+     */
+    public static List<HasMetadata> readResourceFragments(String apiVersion, String apiExtensionsVersion,
+                                                          Map<File, byte[]> fragments, FragmentCache cache) throws IOException {
+        File[] files = new File[fragments.size()];
+        byte[][] contents = new byte[fragments.size()][];
+        int i = 0;
+        for (Map.Entry<File, byte[]> entry : fragments.entrySet()) {
+            files[i] = entry.getKey();
+            contents[i] = entry.getValue();
+            i++;
+        }
+        return readFragments(apiVersion, apiExtensionsVersion, files, contents, cache);
+    }
+
+    // contents holds the already loaded fragments' content. If null, the files are read directly
+    private static List<HasMetadata> readFragments(String apiVersion, String apiExtensionsVersion,
+                                                   File[] resourceFiles, byte[][] contents, FragmentCache cache) throws IOException {
+        return resourceFiles.length > 1 ?
+            readFragmentsConcurrently(apiVersion, apiExtensionsVersion, resourceFiles, contents, cache) :
+            readFragmentsSequentially(apiVersion, apiExtensionsVersion, resourceFiles, contents, cache);
+    }
+
+    private static List<HasMetadata> readFragmentsSequentially(String apiVersion, String apiExtensionsVersion,
+                                                               File[] resourceFiles, byte[][] contents, FragmentCache cache) throws IOException {
+        List<HasMetadata> items = new ArrayList<>();
+        for (int i = 0; i < resourceFiles.length; i++) {
+            items.add(getKubernetesResource(apiVersion, apiExtensionsVersion, resourceFiles[i],
+                                            contents != null ? contents[i] : null, cache));
+        }
+        return items;
+    }
+
+    // Parse fragments on the shared pool. Items are collected in the order of the given files.
+    private static List<HasMetadata> readFragmentsConcurrently(final String apiVersion, final String apiExtensionsVersion,
+                                                               File[] resourceFiles, byte[][] contents,
+                                                               final FragmentCache cache) throws IOException {
+        ExecutorService executor = getFragmentExecutor();
+        List<Future<HasMetadata>> futures = new ArrayList<>(resourceFiles.length);
+        try {
+            for (int i = 0; i < resourceFiles.length; i++) {
+                final File file = resourceFiles[i];
+                final byte[] content = contents != null ? contents[i] : null;
+                futures.add(executor.submit(new Callable<HasMetadata>() {
+                    @Override
+                    public HasMetadata call() throws IOException {
+                        return getKubernetesResource(apiVersion, apiExtensionsVersion, file, content, cache);
+                    }
+                }));
+            }
+            List<HasMetadata> items = new ArrayList<>(resourceFiles.length);
+            for (Future<HasMetadata> future : futures) {
+                items.add(getFragmentResult(future));
+            }
+            return items;
+        } finally {
+            // Don't leave work behind on the shared pool if a fragment failed
+            for (Future<HasMetadata> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    // Bounded executor with daemon threads which time out when idle. Shared by all modules of a build
+    // (and by builds in the same JVM), so that it is never shut down.
+    private static synchronized ExecutorService getFragmentExecutor() {
+        if (fragmentExecutor == null) {
+            int nThreads = Runtime.getRuntime().availableProcessors();
+            ThreadPoolExecutor pool =
+                new ThreadPoolExecutor(nThreads, nThreads, 5, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                                       new ThreadFactory() {
+                                           private final AtomicInteger count = new AtomicInteger();
+                                           @Override
+                                           public Thread newThread(Runnable runnable) {
+                                               Thread thread = new Thread(runnable, "fabric8-fragments-" + count.incrementAndGet());
+                                               thread.setDaemon(true);
+                                               return thread;
+                                           }
+                                       });
+            pool.allowCoreThreadTimeOut(true);
+            fragmentExecutor = pool;
+        }
+        return fragmentExecutor;
+    }
+
+    private static HasMetadata getFragmentResult(Future<HasMetadata> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading resource fragments");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException("Cannot read resource fragment: " + cause, cause);
+        }
+    }
+
     /**
      * Read a Kubernetes resource fragment and add meta information extracted from the filename
      * to the resource descriptor. I.e. the following elements are added if not provided in the fragment:
@@ -92,9 +238,24 @@ public class KubernetesResourceUtil {
      *@param file file to read, whose name must match {@link #FILENAME_PATTERN}.  @return map holding the fragment
      */
     public static HasMetadata getKubernetesResource(String defaultApiVersion, String apiExtensionsVersion, File file) throws IOException {
-        Map<String,Object> fragment = readAndEnrichFragment(defaultApiVersion, apiExtensionsVersion, file);
-        ObjectMapper mapper = new ObjectMapper();
-        return mapper.convertValue(fragment, HasMetadata.class);
+        return readAndEnrichFragment(defaultApiVersion, apiExtensionsVersion, file, null);
+    }
+
+    private static HasMetadata getKubernetesResource(String defaultApiVersion, String apiExtensionsVersion,
+                                                     File file, byte[] content, FragmentCache cache) throws IOException {
+        if (cache == null) {
+            return readAndEnrichFragment(defaultApiVersion, apiExtensionsVersion, file, content);
+        }
+        if (content == null) {
+            content = readContent(file);
+        }
+        String key = cache.createKey(file.getName(), content, defaultApiVersion, apiExtensionsVersion);
+        HasMetadata ret = cache.get(key);
+        if (ret == null) {
+            ret = readAndEnrichFragment(defaultApiVersion, apiExtensionsVersion, file, content);
+            cache.put(key, ret);
+        }
+        return ret;
     }
 
     public static String toYaml(Object resource) throws JsonProcessingException {
@@ -105,28 +266,60 @@ public class KubernetesResourceUtil {
         return serializeAsString(resource, ResourceFileType.json);
     }
 
+    /**
+     * Write a resource to the given file. The resource is streamed directly to the file so
+     * that the serialized form is never held completely in memory.
+     *
+     * @param resource resource to write
+     * @param target file to write to (without extension)
+     * @param resourceFileType format to use, which also determines the extension added
+     * @return the file written
+     * @throws IOException if writing fails
+     */
     public static File writeResource(Object resource, File target, ResourceFileType resourceFileType) throws IOException {
-        String serialized = serializeAsString(resource, resourceFileType);
         File outputFile = resourceFileType.addExtension(target);
-        Files.writeToFile(outputFile, serialized, Charset.defaultCharset());
+        File dir = outputFile.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Cannot create directory " + dir);
+        }
+        try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(outputFile.toPath()), WRITE_BUFFER_SIZE)) {
+            resourceFileType.getObjectWriter().writeValue(os, resource);
+        }
         return outputFile;
     }
 
+    /**
+     * Write a resource in multiple formats. The resource is serialized only once into a token buffer
+     * which is then replayed for every requested format.
+     *
+     * @param resource resource to write
+     * @param target file to write to (without extension)
+     * @param resourceFileTypes formats to write, each one determining the extension of its file
+     * @return the files written, in the order of the given formats
+     * @throws IOException if writing fails
+     */
+    public static File[] writeResource(Object resource, File target, ResourceFileType ... resourceFileTypes) throws IOException {
+        if (resourceFileTypes.length == 1) {
+            return new File[] { writeResource(resource, target, resourceFileTypes[0]) };
+        }
+        TokenBuffer buffer = new TokenBuffer(null, false);
+        ResourceFileType.json.getObjectWriter().writeValue(buffer, resource);
+        File[] ret = new File[resourceFileTypes.length];
+        for (int i = 0; i < resourceFileTypes.length; i++) {
+            ret[i] = writeResource(buffer, target, resourceFileTypes[i]);
+        }
+        return ret;
+    }
+
     private static String serializeAsString(Object resource, ResourceFileType resourceFileType) throws JsonProcessingException {
-        ObjectMapper mapper = resourceFileType.getObjectMapper()
-                                              .enable(SerializationFeature.INDENT_OUTPUT)
-                                              .disable(SerializationFeature.WRITE_EMPTY_JSON_ARRAYS)
-                                              .disable(SerializationFeature.WRITE_NULL_MAP_VALUES);
-        return mapper.writeValueAsString(resource);
+        return resourceFileType.getObjectWriter().writeValueAsString(resource);
     }
 
     public static File[] listResourceFragments(File resourceDir) {
-        final Pattern filenamePattern = Pattern.compile(FILENAME_PATTERN);
-        final Pattern exludePattern = Pattern.compile(PROFILES_PATTERN);
         return resourceDir.listFiles(new FilenameFilter() {
             @Override
             public boolean accept(File dir, String name) {
-                return filenamePattern.matcher(name).matches() && !exludePattern.matcher(name).matches();
+                return FILENAME_LISTING_REGEXP.matcher(name).matches() && !PROFILES_REGEXP.matcher(name).matches();
             }
         });
     }
@@ -161,10 +354,29 @@ public class KubernetesResourceUtil {
     private static final String FILENAME_PATTERN = "^(.*?)(-([^-]+))?\\.(yaml|yml|json)$";
     private static final String PROFILES_PATTERN = "^profiles?\\.ya?ml$";
 
-    // Read fragment and add default values
-    private static Map<String, Object> readAndEnrichFragment(String defaultApiVersion, String apiExtensionsVersion, File file) throws IOException {
-        Pattern pattern = Pattern.compile(FILENAME_PATTERN, Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(file.getName());
+    // Compiled patterns, shared between all (possibly concurrent) readers
+    private static final Pattern FILENAME_REGEXP = Pattern.compile(FILENAME_PATTERN, Pattern.CASE_INSENSITIVE);
+    private static final Pattern FILENAME_LISTING_REGEXP = Pattern.compile(FILENAME_PATTERN);
+    private static final Pattern PROFILES_REGEXP = Pattern.compile(PROFILES_PATTERN);
+
+    // Mappers are thread safe once configured
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+    private static final ObjectMapper YAML_MAPPER = new ObjectMapper(new YAMLFactory());
+
+    // Packages where to look for model classes
+    private static final String[] MODEL_PACKAGES = {
+        "io.fabric8.kubernetes.api.model.",
+        "io.fabric8.kubernetes.api.model.extensions.",
+        "io.fabric8.openshift.api.model."
+    };
+
+    // Cache of model classes for a given kind. Kinds without model class map to HasMetadata itself
+    private static final ConcurrentMap<String, Class<? extends HasMetadata>> KIND_TO_CLASS = new ConcurrentHashMap<>();
+
+    // Read fragment, add default values and bind it directly to the model class of its kind
+    private static HasMetadata readAndEnrichFragment(String defaultApiVersion, String apiExtensionsVersion,
+                                                     File file, byte[] content) throws IOException {
+        Matcher matcher = FILENAME_REGEXP.matcher(file.getName());
         if (!matcher.matches()) {
             throw new IllegalArgumentException(
                 String.format("Resource file name '%s' does not match pattern <name>-<type>.(yaml|yml|json)", file.getName()));
@@ -174,7 +386,7 @@ public class KubernetesResourceUtil {
         String ext = matcher.group(4).toLowerCase();
         String kind;
 
-        Map<String,Object> fragment = readFragment(file, ext);
+        ObjectNode fragment = readFragment(file, content, ext);
 
         if (type != null) {
             kind = getAndValidateKindFromType(file, type);
@@ -187,7 +399,8 @@ public class KubernetesResourceUtil {
             }
         }
 
-        addKind(fragment, kind, file.getName());
+        // A kind given in the descriptor wins over the one derived from the filename
+        kind = addKind(fragment, kind, file.getName());
 
         String apiVersion = defaultApiVersion;
         if (Objects.equals(kind, "Deployment") || Objects.equals(kind, "Ingress")) {
@@ -195,13 +408,13 @@ public class KubernetesResourceUtil {
         }
         addIfNotExistent(fragment, "apiVersion", apiVersion);
 
-        Map<String, Object> metaMap = getMetadata(fragment);
+        ObjectNode metaNode = getMetadata(fragment);
         if (StringUtils.isNotBlank(name)) {
-            addIfNotExistent(metaMap, "name", name);
+            addIfNotExistent(metaNode, "name", name);
         }
 
-        addIfNotExistent(fragment, "apiVersion", defaultApiVersion);
-        return fragment;
+        ObjectMapper mapper = "json".equals(ext) ? JSON_MAPPER : YAML_MAPPER;
+        return mapper.treeToValue(fragment, getResourceClass(kind));
     }
 
     private static String getAndValidateKindFromType(File file, String type) {
@@ -215,36 +428,78 @@ public class KubernetesResourceUtil {
         return kind;
     }
 
-    private static void addKind(Map<String, Object> fragment, String kind, String fileName) {
-        if (kind == null && !fragment.containsKey("kind")) {
+    private static String addKind(ObjectNode fragment, String kind, String fileName) {
+        JsonNode kindNode = fragment.get("kind");
+        if (kindNode != null && !kindNode.isNull()) {
+            return kindNode.asText();
+        }
+        if (kind == null) {
             throw new IllegalArgumentException(
                 "No type given as part of the file name (e.g. 'app-rc.yml') " +
                 "and no 'Kind' defined in resource descriptor " + fileName);
         }
-        addIfNotExistent(fragment, "kind", kind);
+        fragment.put("kind", kind);
+        return kind;
+    }
+
+    // Lookup the model class for a kind so that no polymorphic type resolution is required.
+    // Falls back to HasMetadata if there is no such class.
+    private static Class<? extends HasMetadata> getResourceClass(String kind) {
+        Class<? extends HasMetadata> ret = KIND_TO_CLASS.get(kind);
+        if (ret == null) {
+            ret = HasMetadata.class;
+            for (String pkg : MODEL_PACKAGES) {
+                try {
+                    Class<?> clazz = Class.forName(pkg + kind, false, HasMetadata.class.getClassLoader());
+                    if (HasMetadata.class.isAssignableFrom(clazz)) {
+                        ret = clazz.asSubclass(HasMetadata.class);
+                        break;
+                    }
+                } catch (ClassNotFoundException e) {
+                    // try next package
+                }
+            }
+            KIND_TO_CLASS.putIfAbsent(kind, ret);
+        }
+        return ret;
     }
 
     // ===============================================================================================
 
-    private static Map<String, Object> getMetadata(Map<String, Object> fragment) {
-        Map<String, Object> meta = (Map<String, Object>) fragment.get("metadata");
-        if (meta == null) {
-            meta = new HashMap<>();
-            fragment.put("metadata", meta);
+    private static ObjectNode getMetadata(ObjectNode fragment) {
+        JsonNode meta = fragment.get("metadata");
+        if (meta instanceof ObjectNode) {
+            return (ObjectNode) meta;
         }
-        return meta;
+        return fragment.putObject("metadata");
     }
 
-    private static void addIfNotExistent(Map<String, Object> fragment, String key, String value) {
-        if (!fragment.containsKey(key)) {
+    private static void addIfNotExistent(ObjectNode fragment, String key, String value) {
+        if (!fragment.has(key)) {
             fragment.put(key, value);
         }
     }
 
-    private static Map<String,Object> readFragment(File file, String ext) throws IOException {
-        ObjectMapper mapper = new ObjectMapper("json".equals(ext) ? new JsonFactory() : new YAMLFactory());
-        TypeReference<HashMap<String,Object>> typeRef = new TypeReference<HashMap<String,Object>>() {};
-        return mapper.readValue(file, typeRef);
+    // Parse a fragment, either from the given content (if not null) or from the file
+    private static ObjectNode readFragment(File file, byte[] content, String ext) throws IOException {
+        ObjectMapper mapper = "json".equals(ext) ? JSON_MAPPER : YAML_MAPPER;
+        JsonNode node = content != null ? mapper.readTree(content) : mapper.readTree(file);
+        if (!(node instanceof ObjectNode)) {
+            throw new IllegalArgumentException("Resource descriptor " + file.getName() + " does not contain an object");
+        }
+        return (ObjectNode) node;
+    }
+
+    private static byte[] readContent(File file) throws IOException {
+        try (InputStream is = new FileInputStream(file)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int) file.length());
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
     }
 
     public static String getNameWithSuffix(String name, String kind) {
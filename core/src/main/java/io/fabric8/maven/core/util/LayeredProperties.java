@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import io.fabric8.maven.core.config.ProcessorConfig;
+
+/**
+ * Lookup of property values in several sources, like project properties, the fabric8 configuration
+ * and system properties. The first source having a value wins. Sources are only referenced,
+ * not copied, so creating a lookup is cheap and it always sees the current values.
+ */
+public class LayeredProperties implements PropertyTemplate.Lookup {
+
+    private final List<PropertyTemplate.Lookup> layers = new ArrayList<>();
+
+    /**
+     * Lookup in project properties, then the given fabric8 configuration and finally in the system properties
+     *
+     * @param projectProperties project properties, can be null
+     * @param config configuration of an enricher or generator, can be null
+     * @return the lookup
+     */
+    public static LayeredProperties create(Properties projectProperties, ProcessorConfig config) {
+        return new LayeredProperties()
+            .add(projectProperties)
+            .add(config)
+            .addSystemProperties();
+    }
+
+    public LayeredProperties add(final Properties properties) {
+        if (properties != null) {
+            layers.add(new PropertyTemplate.Lookup() {
+                @Override
+                public String lookup(String key) {
+                    return properties.getProperty(key);
+                }
+            });
+        }
+        return this;
+    }
+
+    public LayeredProperties add(final ProcessorConfig config) {
+        if (config != null) {
+            layers.add(new PropertyTemplate.Lookup() {
+                @Override
+                public String lookup(String key) {
+                    return config.getConfig(key);
+                }
+            });
+        }
+        return this;
+    }
+
+    public LayeredProperties addSystemProperties() {
+        layers.add(new PropertyTemplate.Lookup() {
+            @Override
+            public String lookup(String key) {
+                return System.getProperty(key);
+            }
+        });
+        return this;
+    }
+
+    @Override
+    public String lookup(String key) {
+        for (PropertyTemplate.Lookup layer : layers) {
+            String value = layer.lookup(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+}
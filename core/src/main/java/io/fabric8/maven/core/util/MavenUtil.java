@@ -19,6 +19,7 @@ package io.fabric8.maven.core.util;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
@@ -51,6 +52,15 @@ public class MavenUtil {
 
     private static final String DEFAULT_CONFIG_FILE_NAME = "kubernetes.json";
 
+    // Location of the persisted classpath index, relative to the build directory
+    private static final String CLASSPATH_INDEX_FILE = "fabric8/classpath-index";
+
+    // Key for the compile classpath index in the project's context
+    private static final String CLASSPATH_INDEX_KEY = ClasspathIndex.class.getName();
+
+    // Guards creation of classpath indexes, enrichers might ask concurrently
+    private static final Object CLASSPATH_INDEX_LOCK = new Object();
+
     public static boolean isKubernetesJsonArtifact(String classifier, String type) {
         return "json".equals(type) && "kubernetes".equals(classifier);
     }
@@ -93,6 +103,38 @@ public class MavenUtil {
         }
     }
 
+    /**
+     * Get an index of all classes and resources on the compile classpath. The index is created only once
+     * per module and kept in the project's context for the rest of the build.
+     *
+     * @param project project for which to get the index
+     * @return the index
+     * @throws IOException if the classpath cannot be read
+     */
+    public static ClasspathIndex getCompileClasspathIndex(MavenProject project) throws IOException {
+        synchronized (CLASSPATH_INDEX_LOCK) {
+            ClasspathIndex index = (ClasspathIndex) project.getContextValue(CLASSPATH_INDEX_KEY);
+            if (index == null) {
+                index = createCompileClasspathIndex(project);
+                project.setContextValue(CLASSPATH_INDEX_KEY, index);
+            }
+            return index;
+        }
+    }
+
+    private static ClasspathIndex createCompileClasspathIndex(MavenProject project) throws IOException {
+        List<String> elements = new ArrayList<>();
+        elements.add(project.getBuild().getOutputDirectory());
+        try {
+            elements.addAll(project.getCompileClasspathElements());
+        } catch (DependencyResolutionRequiredException e) {
+            throw new IllegalArgumentException("Cannot resolve artifact from compile classpath",e);
+        }
+        String buildDir = project.getBuild().getDirectory();
+        File indexFile = buildDir != null ? new File(buildDir, CLASSPATH_INDEX_FILE) : null;
+        return ClasspathIndex.create(elements, indexFile);
+    }
+
     public static String createDefaultResourceName(MavenProject project, String ... suffixes) {
         String suffix = StringUtils.join(suffixes, "-");
         return project.getArtifactId() + (suffix.length() > 0 ? "-" + suffix : suffix);
@@ -157,6 +199,17 @@ public class MavenUtil {
      * Returns true if any of the given class names could be found on the given class loader
      */
     public static boolean hasClass(MavenProject project, String ... classNames) {
+        try {
+            ClasspathIndex index = getCompileClasspathIndex(project);
+            for (String className : classNames) {
+                if (index.hasClass(className)) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (IOException e) {
+            LOG.warn("Cannot index compile classpath, falling back to class loading: " + e, e);
+        }
         URLClassLoader compileClassLoader = getCompileClassLoader(project);
         for (String className : classNames) {
             try {
@@ -180,12 +233,17 @@ public class MavenUtil {
      * Returns the given properties file on the project classpath if found or an empty properties object if not
      */
     public static Properties getPropertiesFile(MavenProject project, String propertiesFileName) {
-        URLClassLoader compileClassLoader = getCompileClassLoader(project);
-        URL resource = compileClassLoader.findResource(propertiesFileName);
+        URL resource;
+        try {
+            resource = getCompileClasspathIndex(project).findResource(propertiesFileName);
+        } catch (IOException e) {
+            LOG.warn("Cannot index compile classpath, falling back to class loading: " + e, e);
+            resource = getCompileClassLoader(project).findResource(propertiesFileName);
+        }
         Properties answer = new Properties();
         if (resource != null) {
-            try {
-                answer.load(resource.openStream());
+            try (InputStream is = resource.openStream()) {
+                answer.load(is);
             } catch (IOException e) {
                 LOG.error("Failed to load properties from: " + resource + ". " + e, e);
             }
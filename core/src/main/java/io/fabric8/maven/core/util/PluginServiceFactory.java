@@ -17,13 +17,12 @@
 package io.fabric8.maven.core.util;
 
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.LineNumberReader;
 import java.lang.reflect.Constructor;
-import java.net.URL;
 import java.util.*;
 import java.util.regex.Pattern;
 
+import io.fabric8.maven.core.config.Named;
+
 /**
  * A simple factory for creating services with no-arg constructors from a textual
  * descriptor. This descriptor, which must be a resource loadable by this class'
@@ -33,10 +32,13 @@ import java.util.regex.Pattern;
  *   com.example.MyProjectLabelEnricher
  *   !io.fabric8.maven.fabric8.enhancer.DefaultProjectLabelEnricher
  *   com.example.AnotherEnricher,50
+ *   com.example.NamedEnricher,60,name=named
  * </pre>
  *
  * If a line starts with <code>!</code> it is removed if it has been added previously.
  * The optional second numeric value is the order in which the services are returned.
+ * An optional <code>name=</code> value declares the name of the service so that it
+ * is known without creating the service (see {@link #createLazyServiceObjects(String...)}).
  *
  * @author roland
  * @since 05.11.10
@@ -46,8 +48,22 @@ public final class PluginServiceFactory<C> {
     // Parameters for service constructors
     private C context;
 
+    // Where descriptors are looked up
+    private final ReactorCache reactorCache;
+
     public PluginServiceFactory(C context) {
+        this(context, null);
+    }
+
+    /**
+     * Create a factory which takes the service descriptors from a cache
+     *
+     * @param context context given to the constructor of the services
+     * @param reactorCache cache for the descriptors, if null descriptors are read each time
+     */
+    public PluginServiceFactory(C context, ReactorCache reactorCache) {
         this.context = context;
+        this.reactorCache = reactorCache != null ? reactorCache : new ReactorCache();
     }
 
     /**
@@ -64,25 +80,39 @@ public final class PluginServiceFactory<C> {
      * @return a ordered list of created services or an empty list.
      */
     public <T> List<T> createServiceObjects(String... descriptorPaths) {
+        ArrayList<T> ret = new ArrayList<T>();
+        for (LazyService<T> service : this.<T>createLazyServiceObjects(descriptorPaths)) {
+            ret.add(service.get());
+        }
+        return ret;
+    }
+
+    /**
+     * Same as {@link #createServiceObjects(String...)} but the services are not created
+     * right away. Instead handles are returned which create the service on first access.
+     * Classes and constructors are still looked up eagerly so that errors in the descriptors
+     * are detected early.
+     *
+     * @param descriptorPaths a list of resource paths which are handle in the given order.
+     * @param <T> type of the service objects to create
+     * @return a ordered list of service handles or an empty list.
+     */
+    public <T> List<LazyService<T>> createLazyServiceObjects(String... descriptorPaths) {
         try {
             ServiceEntry.initDefaultOrder();
-            TreeMap<ServiceEntry,T> serviceMap = new TreeMap<ServiceEntry,T>();
+            TreeMap<ServiceEntry,LazyService<T>> serviceMap = new TreeMap<ServiceEntry,LazyService<T>>();
             for (String descriptor : descriptorPaths) {
                 readServiceDefinitions(serviceMap, descriptor);
             }
-            ArrayList<T> ret = new ArrayList<T>();
-            for (T service : serviceMap.values()) {
-                ret.add(service);
-            }
-            return ret;
+            return new ArrayList<LazyService<T>>(serviceMap.values());
         } finally {
             ServiceEntry.removeDefaultOrder();
         }
     }
 
-    private <T> void readServiceDefinitions(Map<ServiceEntry, T> extractorMap, String defPath) {
+    private <T> void readServiceDefinitions(Map<ServiceEntry, LazyService<T>> extractorMap, String defPath) {
         try {
-            for (String url : ClassUtil.getResources(defPath)) {
+            for (String url : reactorCache.getResources(defPath)) {
                 readServiceDefinitionFromUrl(extractorMap, url);
             }
         } catch (IOException e) {
@@ -90,13 +120,12 @@ public final class PluginServiceFactory<C> {
         }
     }
 
-    private <T> void readServiceDefinitionFromUrl(Map<ServiceEntry, T> extractorMap, String url) {
+    private <T> void readServiceDefinitionFromUrl(Map<ServiceEntry, LazyService<T>> extractorMap, String url) {
         String line = null;
-        try (LineNumberReader reader = new LineNumberReader(new InputStreamReader(new URL(url).openStream(), "UTF8"))) {
-            line = reader.readLine();
-            while (line != null) {
+        try {
+            for (String descriptorLine : reactorCache.getResourceLines(url)) {
+                line = descriptorLine;
                 createOrRemoveService(extractorMap, line);
-                line = reader.readLine();
             }
         } catch (ReflectiveOperationException|IOException e) {
             throw new IllegalStateException("Cannot load service " + line + " defined in " +
@@ -107,7 +136,7 @@ public final class PluginServiceFactory<C> {
     // Matches comment lines and empty lines. these are skipped
     private static Pattern COMMENT_LINE_PATTERN = Pattern.compile("^(\\s*#.*|\\s*)$");
 
-    private synchronized  <T> void createOrRemoveService(Map<ServiceEntry, T> serviceMap, String line)
+    private synchronized  <T> void createOrRemoveService(Map<ServiceEntry, LazyService<T>> serviceMap, String line)
         throws ReflectiveOperationException {
         if (line.length() > 0 && !COMMENT_LINE_PATTERN.matcher(line).matches()) {
             ServiceEntry entry = new ServiceEntry(line);
@@ -134,18 +163,79 @@ public final class PluginServiceFactory<C> {
                     throw new IllegalArgumentException(
                         "Internal Error: " + clazz + " does not have constructor (" + context.getClass() + ")");
                 }
-                T service = constructor.newInstance(context);
-                serviceMap.put(entry, service);
+                serviceMap.put(entry, new LazyService<T>(constructor, context, entry.getName()));
             }
         }
     }
 
     // =============================================================================
 
+    /**
+     * Handle for a service which is created when accessed the first time
+     *
+     * @param <T> type of the service
+     */
+    public static final class LazyService<T> implements Named {
+
+        private final Constructor<T> constructor;
+        private final Object context;
+        private final String name;
+
+        private T service;
+
+        private LazyService(Constructor<T> constructor, Object context, String name) {
+            this.constructor = constructor;
+            this.context = context;
+            this.name = name;
+        }
+
+        /**
+         * Get the name of the service. If the name is not declared in the descriptor, the
+         * service is created for looking up its name.
+         *
+         * @return name of the service
+         */
+        @Override
+        public String getName() {
+            if (name != null) {
+                return name;
+            }
+            T service = get();
+            return service instanceof Named ? ((Named) service).getName() : constructor.getDeclaringClass().getName();
+        }
+
+        /**
+         * Get the service, creating it if necessary
+         *
+         * @return the service
+         */
+        public synchronized T get() {
+            if (service == null) {
+                try {
+                    service = constructor.newInstance(context);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("Cannot create service " + constructor.getDeclaringClass().getName() +
+                                                    " : " + e + ". Aborting", e);
+                }
+            }
+            return service;
+        }
+
+        /**
+         * @return whether the service has been created already
+         */
+        public synchronized boolean isCreated() {
+            return service != null;
+        }
+    }
+
      static class ServiceEntry implements Comparable<ServiceEntry> {
+        private static final String NAME_PREFIX = "name=";
+
         private String className;
         private boolean remove;
         private Integer order;
+        private String name;
 
         private static ThreadLocal<Integer> defaultOrderHolder = new ThreadLocal<Integer>() {
 
@@ -177,13 +267,19 @@ public final class PluginServiceFactory<C> {
                 remove = false;
                 className = parts[0];
             }
-            if (parts.length > 1) {
-                try {
-                    order = Integer.parseInt(parts[1]);
-                } catch (NumberFormatException exp) {
-                    order = nextDefaultOrder();
+            for (int i = 1; i < parts.length; i++) {
+                String part = parts[i].trim();
+                if (part.startsWith(NAME_PREFIX)) {
+                    name = part.substring(NAME_PREFIX.length());
+                } else if (order == null) {
+                    try {
+                        order = Integer.parseInt(part);
+                    } catch (NumberFormatException exp) {
+                        order = nextDefaultOrder();
+                    }
                 }
-            } else {
+            }
+            if (order == null) {
                 order = nextDefaultOrder();
             }
         }
@@ -206,6 +302,10 @@ public final class PluginServiceFactory<C> {
             return className;
         }
 
+        private String getName() {
+            return name;
+        }
+
         private boolean isRemove() {
             return remove;
         }
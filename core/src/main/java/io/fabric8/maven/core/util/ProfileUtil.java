@@ -52,9 +52,22 @@ public class ProfileUtil {
      * @throws IOException
      */
     public static Profile findProfile(String profile, File resourceDir) throws IOException {
+        return findProfile(profile, resourceDir, null);
+    }
+
+    /**
+     * Same as {@link #findProfile(String, File)} but classpath profiles are taken from a cache
+     *
+     * @param profile the profile's name
+     * @param resourceDir a directory to check for profiles.
+     * @param reactorCache cache holding the classpath profiles, can be null
+     * @return the profile found
+     * @throws IOException
+     */
+    public static Profile findProfile(String profile, File resourceDir, ReactorCache reactorCache) throws IOException {
         try {
             if (profile != null) {
-                Profile profileFound = lookup(profile, resourceDir);
+                Profile profileFound = lookup(profile, resourceDir, reactorCache);
                 if (profileFound != null) {
                     return profileFound;
                 } else {
@@ -81,10 +94,22 @@ public class ProfileUtil {
                                                                  ProcessorConfigurationExtractor extractor,
                                                                  String profile,
                                                                  File resourceDir) throws IOException {
+        return extractProcesssorConfiguration(given, extractor, profile, resourceDir, null);
+    }
+
+    /**
+     * Same as {@link #extractProcesssorConfiguration(ProcessorConfig, ProcessorConfigurationExtractor, String, File)}
+     * but classpath profiles are taken from a cache
+     */
+    public static ProcessorConfig extractProcesssorConfiguration(ProcessorConfig given,
+                                                                 ProcessorConfigurationExtractor extractor,
+                                                                 String profile,
+                                                                 File resourceDir,
+                                                                 ReactorCache reactorCache) throws IOException {
         if (given != null) {
             return given;
         }
-        Profile profileFound = findProfile(profile, resourceDir);
+        Profile profileFound = findProfile(profile, resourceDir, reactorCache);
         if (profileFound != null) {
             return extractor.extract(profileFound);
         }
@@ -119,6 +144,10 @@ public class ProfileUtil {
      * @throws IOException if somethings fails during lookup
      */
     public static Profile lookup(String name, File directory) throws IOException {
+        return lookup(name, directory, null);
+    }
+
+    private static Profile lookup(String name, File directory, ReactorCache reactorCache) throws IOException {
         File profileFile = findProfileYaml(directory);
         if (profileFile != null) {
             List<Profile> profiles = fromYaml(new FileInputStream(profileFile));
@@ -128,7 +157,9 @@ public class ProfileUtil {
                 }
             }
         }
-        return readAllFromClasspath().get(name);
+        Map<String, Profile> classpathProfiles =
+            reactorCache != null ? reactorCache.getClasspathProfiles() : readAllFromClasspath();
+        return classpathProfiles.get(name);
     }
 
     // ================================================================================
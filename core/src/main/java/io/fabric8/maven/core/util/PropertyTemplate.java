@@ -0,0 +1,143 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A text with <code>${key}</code> placeholders which is parsed once into literal and placeholder segments.
+ * Resolving it against a {@link Lookup} is then a single pass over the segments. Placeholders for which
+ * no value can be found are kept as they are. Placeholders are not nested, and a value is not
+ * interpolated again.
+ */
+public class PropertyTemplate {
+
+    // Templates are immutable, so they can be shared
+    private static final ConcurrentMap<String, PropertyTemplate> COMPILED = new ConcurrentHashMap<>();
+
+    // Limit for the number of templates to remember
+    private static final int MAX_COMPILED = 1000;
+
+    // literals.length == keys.length + 1, literal[i] comes before key[i]
+    private final String[] literals;
+    private final String[] keys;
+
+    private PropertyTemplate(String[] literals, String[] keys) {
+        this.literals = literals;
+        this.keys = keys;
+    }
+
+    /**
+     * Source for placeholder values
+     */
+    public interface Lookup {
+        /**
+         * @param key key to lookup
+         * @return the value or null if there is no value for this key
+         */
+        String lookup(String key);
+    }
+
+    /**
+     * Get the compiled template for a text
+     *
+     * @param text text to compile
+     * @return the template
+     */
+    public static PropertyTemplate compile(String text) {
+        PropertyTemplate ret = COMPILED.get(text);
+        if (ret == null) {
+            ret = parse(text);
+            if (COMPILED.size() < MAX_COMPILED) {
+                COMPILED.putIfAbsent(text, ret);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Interpolate a text in one go
+     *
+     * @param text text to interpolate
+     * @param lookup where to lookup the values
+     * @return the interpolated text
+     */
+    public static String interpolate(String text, Lookup lookup) {
+        return compile(text).resolve(lookup);
+    }
+
+    /**
+     * Replace all placeholders with their values
+     *
+     * @param lookup where to lookup the values
+     * @return the interpolated text
+     */
+    public String resolve(Lookup lookup) {
+        if (keys.length == 0) {
+            return literals[0];
+        }
+        StringBuilder ret = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            ret.append(literals[i]);
+            String value = lookup.lookup(keys[i]);
+            if (value != null) {
+                ret.append(value);
+            } else {
+                ret.append("${").append(keys[i]).append("}");
+            }
+        }
+        return ret.append(literals[keys.length]).toString();
+    }
+
+    /**
+     * @return keys of all placeholders in order of their occurence
+     */
+    public List<String> getKeys() {
+        List<String> ret = new ArrayList<>();
+        for (String key : keys) {
+            ret.add(key);
+        }
+        return ret;
+    }
+
+    // ==========================================================================================
+
+    private static PropertyTemplate parse(String text) {
+        List<String> literals = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        int pos = 0;
+        StringBuilder literal = new StringBuilder();
+        while (pos < text.length()) {
+            int start = text.indexOf("${", pos);
+            int end = start >= 0 ? text.indexOf('}', start + 2) : -1;
+            if (start < 0 || end < 0) {
+                break;
+            }
+            literal.append(text, pos, start);
+            literals.add(literal.toString());
+            literal.setLength(0);
+            keys.add(text.substring(start + 2, end));
+            pos = end + 1;
+        }
+        literal.append(text, Math.min(pos, text.length()), text.length());
+        literals.add(literal.toString());
+        return new PropertyTemplate(literals.toArray(new String[literals.size()]), keys.toArray(new String[keys.size()]));
+    }
+}
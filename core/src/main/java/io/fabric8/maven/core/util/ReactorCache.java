@@ -0,0 +1,200 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.util;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.*;
+
+import io.fabric8.maven.core.config.Profile;
+import org.apache.maven.execution.MavenSession;
+
+/**
+ * Cache for facts which are the same for all modules of a reactor build, like the service descriptors
+ * and profiles found on the plugin's classpath or the metadata of the root git repository.
+ * There is one cache per build, which is shared by all modules. Maven hands out a clone of the
+ * session to each module, so the cache is bound to the execution request which all clones share.
+ * Each value is computed only once even when modules are built in parallel (<code>mvn -T</code>).
+ * Cached values must not be modified.
+ */
+public class ReactorCache {
+
+    // One cache per build, released together with the execution request
+    private static final Map<Object, ReactorCache> CACHES = new WeakHashMap<>();
+
+    private final ConcurrentMap<Object, Future<Object>> values = new ConcurrentHashMap<>();
+
+    /**
+     * Get the cache for a session
+     *
+     * @param session the current session, if null a cache which is not shared is returned
+     * @return the cache for this session
+     */
+    public static ReactorCache getInstance(MavenSession session) {
+        if (session == null) {
+            return new ReactorCache();
+        }
+        Object scope = session.getRequest() != null ? session.getRequest() : session;
+        synchronized (CACHES) {
+            ReactorCache ret = CACHES.get(scope);
+            if (ret == null) {
+                ret = new ReactorCache();
+                CACHES.put(scope, ret);
+            }
+            return ret;
+        }
+    }
+
+    /**
+     * Lookup a value and compute it if not already done. If multiple threads ask
+     * for the same value concurrently, only one of them computes it and the others wait
+     * for the result. A failed computation is not cached.
+     *
+     * @param key key of the value
+     * @param loader how to compute the value
+     * @param <T> type of the value
+     * @return the value
+     * @throws IOException if the computation fails with an IOException
+     */
+    public <T> T get(String key, Callable<T> loader) throws IOException {
+        return getValue(key, loader);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T getValue(Object key, Callable<T> loader) throws IOException {
+        Future<Object> future = values.get(key);
+        if (future == null) {
+            FutureTask<Object> task = new FutureTask<>((Callable<Object>) loader);
+            future = values.putIfAbsent(key, task);
+            if (future == null) {
+                future = task;
+                task.run();
+            }
+        }
+        try {
+            return (T) future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while looking up " + key, e);
+        } catch (ExecutionException e) {
+            values.remove(key, future);
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException("Cannot lookup " + key + ": " + cause, cause);
+        }
+    }
+
+    /**
+     * Get the URLs of all resources with the given path as found by {@link ClassUtil#getResources(String)}.
+     * Since the lookup depends on the context class loader, which differs for modules using different plugin
+     * dependencies, the result is cached per class loader.
+     *
+     * @param path resource path
+     * @return set of URLs
+     */
+    public Set<String> getResources(final String path) throws IOException {
+        return getValue(new ClassLoaderKey("resources", path), new Callable<Set<String>>() {
+            @Override
+            public Set<String> call() throws IOException {
+                return Collections.unmodifiableSet(ClassUtil.getResources(path));
+            }
+        });
+    }
+
+    /**
+     * Get the lines of a resource
+     *
+     * @param url URL of the resource
+     * @return all lines
+     */
+    public List<String> getResourceLines(final String url) throws IOException {
+        return getValue(new ClassLoaderKey("lines", url), new Callable<List<String>>() {
+            @Override
+            public List<String> call() throws IOException {
+                List<String> ret = new ArrayList<>();
+                try (LineNumberReader reader =
+                         new LineNumberReader(new InputStreamReader(new URL(url).openStream(), "UTF8"))) {
+                    String line = reader.readLine();
+                    while (line != null) {
+                        ret.add(line);
+                        line = reader.readLine();
+                    }
+                }
+                return Collections.unmodifiableList(ret);
+            }
+        });
+    }
+
+    /**
+     * Get all profiles found on the classpath as read by {@link ProfileUtil#readAllFromClasspath()}
+     *
+     * @return profiles keyed by name
+     */
+    public Map<String, Profile> getClasspathProfiles() throws IOException {
+        return getValue(new ClassLoaderKey("profiles", null), new Callable<Map<String, Profile>>() {
+            @Override
+            public Map<String, Profile> call() throws IOException {
+                return Collections.unmodifiableMap(ProfileUtil.readAllFromClasspath());
+            }
+        });
+    }
+
+    // Key for lookups which depend on the context class loader
+    private static final class ClassLoaderKey {
+        private final String type;
+        private final String name;
+        private final ClassLoader classLoader;
+
+        private ClassLoaderKey(String type, String name) {
+            this.type = type;
+            this.name = name;
+            this.classLoader = Thread.currentThread().getContextClassLoader();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ClassLoaderKey)) {
+                return false;
+            }
+            ClassLoaderKey other = (ClassLoaderKey) o;
+            return type.equals(other.type) &&
+                   (name != null ? name.equals(other.name) : other.name == null) &&
+                   classLoader == other.classLoader;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * type.hashCode() + (name != null ? name.hashCode() : 0)) +
+                   System.identityHashCode(classLoader);
+        }
+
+        @Override
+        public String toString() {
+            return type + (name != null ? ":" + name : "") + " (" + classLoader + ")";
+        }
+    }
+}
@@ -17,8 +17,12 @@
 package io.fabric8.maven.core.util;
 
 import java.io.File;
+import java.util.EnumMap;
+import java.util.Map;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 
 /**
@@ -51,8 +55,33 @@ public enum ResourceFileType {
 
     public abstract ObjectMapper getObjectMapper();
 
+    /**
+     * Get a shared writer for serializing resource descriptors in this format. The writer is
+     * immutable and can be used concurrently.
+     *
+     * @return writer configured for pretty printed output without empty arrays and null map values
+     */
+    public ObjectWriter getObjectWriter() {
+        return Writers.WRITERS.get(this);
+    }
+
     public File addExtension(File file) {
         String path = file.getAbsolutePath();
         return new File(path + "." + extension);
     }
+
+    // Holder for lazy initialization after all enum constants have been created
+    private static class Writers {
+        private static final Map<ResourceFileType, ObjectWriter> WRITERS = new EnumMap<>(ResourceFileType.class);
+
+        static {
+            for (ResourceFileType type : ResourceFileType.values()) {
+                WRITERS.put(type, type.getObjectMapper()
+                                      .writer()
+                                      .with(SerializationFeature.INDENT_OUTPUT)
+                                      .without(SerializationFeature.WRITE_EMPTY_JSON_ARRAYS)
+                                      .without(SerializationFeature.WRITE_NULL_MAP_VALUES));
+            }
+        }
+    }
 }
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.core.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Collects the time spent in the various steps of a goal. Steps are identified by a name,
+ * sub steps (like the work done by a single enricher) use a name of the form "step/detail".
+ * Multiple measurements for the same name are summed up. Steps are reported in the order
+ * in which they have been recorded first.
+ *
+ * This class can be used concurrently.
+ */
+public class Timings {
+
+    private static final ObjectMapper MAPPER =
+        new ObjectMapper().configure(SerializationFeature.INDENT_OUTPUT, true);
+
+    private final long created = System.nanoTime();
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    /**
+     * Start a measurement
+     *
+     * @return start time to hand over to {@link #stop(String, long)}
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Finish a measurement
+     *
+     * @param name name of the step measured
+     * @param start start time as obtained by {@link #start()}
+     */
+    public void stop(String name, long start) {
+        long duration = System.nanoTime() - start;
+        synchronized (entries) {
+            Entry entry = entries.get(name);
+            if (entry == null) {
+                entry = new Entry();
+                entries.put(name, entry);
+            }
+            entry.count++;
+            entry.nanos += duration;
+        }
+    }
+
+    /**
+     * Write all measurements as JSON
+     *
+     * @param file file to write to
+     */
+    public void writeTo(File file) throws IOException {
+        File dir = file.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Cannot create directory " + dir);
+        }
+        Map<String, Object> steps = new LinkedHashMap<>();
+        synchronized (entries) {
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                Map<String, Object> step = new LinkedHashMap<>();
+                step.put("count", e.getValue().count);
+                step.put("millis", toMillis(e.getValue().nanos));
+                steps.put(e.getKey(), step);
+            }
+        }
+        Map<String, Object> ret = new LinkedHashMap<>();
+        ret.put("totalMillis", toMillis(System.nanoTime() - created));
+        ret.put("steps", steps);
+        MAPPER.writeValue(file, ret);
+    }
+
+    /**
+     * Get a one-line summary of all top-level steps
+     *
+     * @return summary like "1200 ms total (parse: 300 ms, enrich: 600 ms)"
+     */
+    public String getSummary() {
+        StringBuilder ret = new StringBuilder();
+        ret.append(toMillis(System.nanoTime() - created)).append(" ms total (");
+        String sep = "";
+        synchronized (entries) {
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                if (e.getKey().indexOf('/') == -1) {
+                    ret.append(sep).append(e.getKey()).append(": ").append(toMillis(e.getValue().nanos)).append(" ms");
+                    sep = ", ";
+                }
+            }
+        }
+        return ret.append(")").toString();
+    }
+
+    private long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static class Entry {
+        private int count;
+        private long nanos;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.core.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class ClasspathIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void lookup() throws IOException {
+        File classes = folder.newFolder("classes");
+        new File(classes, "org/example").mkdirs();
+        new File(classes, "org/example/Main.class").createNewFile();
+        new File(classes, "application.properties").createNewFile();
+        File jar = createJar("lib.jar", "org/lib/Helper.class", "application.properties");
+        File indexFile = new File(folder.getRoot(), "index");
+
+        ClasspathIndex index = ClasspathIndex.create(Arrays.asList(classes.getPath(), jar.getPath()), indexFile);
+        assertTrue(index.hasClass("org.example.Main"));
+        assertTrue(index.hasClass("org.lib.Helper"));
+        assertFalse(index.hasClass("org.lib.Missing"));
+        assertFalse(index.hasResource("org/lib"));
+
+        // First classpath element wins
+        URL url = index.findResource("application.properties");
+        assertEquals(new File(classes, "application.properties").toURI().toURL(), url);
+        assertTrue(index.findResource("org/lib/Helper.class").toString().startsWith("jar:"));
+        assertNull(index.findResource("none.properties"));
+
+        // Jar entries are read back from the index file
+        assertTrue(indexFile.isFile());
+        ClasspathIndex reread = ClasspathIndex.create(Arrays.asList(classes.getPath(), jar.getPath()), indexFile);
+        assertTrue(reread.hasClass("org.lib.Helper"));
+        assertTrue(reread.hasClass("org.example.Main"));
+    }
+
+    @Test
+    public void createdOncePerProject() throws IOException {
+        File classes = folder.newFolder("project-classes");
+        new File(classes, "org/example").mkdirs();
+        new File(classes, "org/example/Main.class").createNewFile();
+        MavenProject project = new MavenProject();
+        project.getBuild().setOutputDirectory(classes.getPath());
+        project.getBuild().setDirectory(new File(folder.getRoot(), "target").getPath());
+
+        ClasspathIndex index = MavenUtil.getCompileClasspathIndex(project);
+        assertSame(index, MavenUtil.getCompileClasspathIndex(project));
+        assertTrue(MavenUtil.hasClass(project, "org.example.Other", "org.example.Main"));
+        assertFalse(MavenUtil.hasClass(project, "org.example.Other"));
+    }
+
+    private File createJar(String name, String ... entries) throws IOException {
+        File jar = new File(folder.getRoot(), name);
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+            for (String entry : entries) {
+                out.putNextEntry(new ZipEntry(entry));
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.core.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class FingerprintTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void labelsAndValues() {
+        assertEquals(new Fingerprint().add("a", "1").asHex(), new Fingerprint().add("a", "1").asHex());
+        assertNotEquals(new Fingerprint().add("a", "1").asHex(), new Fingerprint().add("b", "1").asHex());
+        assertNotEquals(new Fingerprint().add("a", "12").add("b", "").asHex(),
+                        new Fingerprint().add("a", "1").add("b", "2").asHex());
+    }
+
+    @Test
+    public void prefixedProperties() {
+        Properties props = new Properties();
+        props.setProperty("fabric8.enricher.default.service.type", "NodePort");
+        props.setProperty("user.dir", "/tmp");
+        String base = new Fingerprint().add("props", props, "fabric8.").asHex();
+
+        // Unrelated properties don't count
+        props.setProperty("user.dir", "/other");
+        assertEquals(base, new Fingerprint().add("props", props, "fabric8.").asHex());
+
+        // but changing a fabric8 property does
+        props.setProperty("fabric8.enricher.default.service.type", "LoadBalancer");
+        assertNotEquals(base, new Fingerprint().add("props", props, "fabric8.").asHex());
+    }
+
+    @Test
+    public void incrementalCheck() throws IOException {
+        File fragment = folder.newFile("deployment.yml");
+        java.nio.file.Files.write(fragment.toPath(), "spec: {}".getBytes("UTF-8"));
+        File stored = new File(folder.getRoot(), "work/resource.fingerprint");
+
+        Fingerprint first = new Fingerprint().add("fragment", fragment).add("pluginVersion", "3.0.0");
+        assertFalse(first.matches(stored));
+        first.store(stored);
+        assertTrue(new Fingerprint().add("fragment", fragment).add("pluginVersion", "3.0.0").matches(stored));
+
+        // A plugin upgrade invalidates the output
+        assertFalse(new Fingerprint().add("fragment", fragment).add("pluginVersion", "3.0.1").matches(stored));
+
+        // as does a changed fragment
+        java.nio.file.Files.write(fragment.toPath(), "spec: { replicas: 2 }".getBytes("UTF-8"));
+        assertFalse(new Fingerprint().add("fragment", fragment).add("pluginVersion", "3.0.0").matches(stored));
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.core.util;
+
+import java.io.File;
+import java.io.IOException;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.api.model.extensions.Deployment;
+import io.fabric8.kubernetes.api.model.extensions.DeploymentBuilder;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class FragmentCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File cacheDir;
+
+    @Before
+    public void setup() {
+        cacheDir = new File(folder.getRoot(), "cache");
+    }
+
+    @Test
+    public void hitKeepsType() {
+        FragmentCache cache = new FragmentCache(cacheDir, 1024 * 1024);
+        String key = cache.createKey("app-deployment.yml", "content".getBytes(), "v1", "extensions/v1beta1");
+        assertNull(cache.get(key));
+
+        Deployment deployment = new DeploymentBuilder()
+            .withNewMetadata().withName("app").endMetadata()
+            .withNewSpec().withReplicas(2).endSpec()
+            .build();
+        cache.put(key, deployment);
+
+        HasMetadata hit = cache.get(key);
+        assertEquals(Deployment.class, hit.getClass());
+        assertEquals("app", hit.getMetadata().getName());
+        assertEquals(Integer.valueOf(2), ((Deployment) hit).getSpec().getReplicas());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void keyChangesWithInput() {
+        FragmentCache cache = new FragmentCache(cacheDir, 1024 * 1024);
+        String key = cache.createKey("svc.yml", "a".getBytes(), "v1", "extensions/v1beta1");
+        assertEquals(key, cache.createKey("svc.yml", "a".getBytes(), "v1", "extensions/v1beta1"));
+        assertNotEquals(key, cache.createKey("svc.yml", "b".getBytes(), "v1", "extensions/v1beta1"));
+        assertNotEquals(key, cache.createKey("other-svc.yml", "a".getBytes(), "v1", "extensions/v1beta1"));
+        assertNotEquals(key, cache.createKey("svc.yml", "a".getBytes(), "v2", "extensions/v1beta1"));
+        assertNotEquals(key, cache.createKey("svc.yml", "a".getBytes(), "v1", "extensions/v2"));
+    }
+
+    @Test
+    public void corruptEntry() throws IOException {
+        FragmentCache cache = new FragmentCache(cacheDir, 1024 * 1024);
+        String key = cache.createKey("svc.yml", "a".getBytes(), "v1", "extensions/v1beta1");
+        cache.put(key, createService("svc"));
+        File entry = new File(cacheDir, key + ".json");
+        assertTrue(entry.isFile());
+
+        java.nio.file.Files.write(entry.toPath(), "{ \"type\": \"java.lang.String\", \"resource\": {".getBytes("UTF-8"));
+        assertNull(cache.get(key));
+        assertFalse(entry.exists());
+
+        // Can be stored again
+        cache.put(key, createService("svc"));
+        assertTrue(cache.get(key) instanceof Service);
+    }
+
+    @Test
+    public void trim() {
+        FragmentCache cache = new FragmentCache(cacheDir, 0);
+        String[] keys = new String[3];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = cache.createKey("svc" + i + ".yml", new byte[] { (byte) i }, "v1", "extensions/v1beta1");
+            cache.put(keys[i], createService("svc" + i));
+            new File(cacheDir, keys[i] + ".json").setLastModified(1000000L * (i + 1));
+        }
+        long entrySize = new File(cacheDir, keys[2] + ".json").length();
+
+        // Room for the two most recently used entries
+        cache = new FragmentCache(cacheDir, 2 * entrySize + entrySize / 2);
+        cache.trim();
+        assertFalse(new File(cacheDir, keys[0] + ".json").exists());
+        assertTrue(new File(cacheDir, keys[1] + ".json").exists());
+        assertTrue(new File(cacheDir, keys[2] + ".json").exists());
+    }
+
+    private Service createService(String name) {
+        return new ServiceBuilder().withNewMetadata().withName(name).endMetadata().build();
+    }
+}
@@ -18,6 +18,7 @@ package io.fabric8.maven.core.util;
 
 import java.io.*;
 import java.net.URLDecoder;
+import java.nio.file.Files;
 
 import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.KubernetesList;
@@ -141,5 +142,20 @@ public class KubernetesResourceUtilTest {
             assertEquals("v2",item.getApiVersion());
         }
     }
-}
 
+    @Test
+    public void writeMultipleFormatsFromSinglePass() throws IOException {
+        KubernetesList list =
+            KubernetesResourceUtil.readResourceFragmentsFrom(API_VERSION, API_EXTENSIONS_VERSION, new File(fabric8Dir, "read-dir").listFiles()).build();
+        File dir = Files.createTempDirectory("fabric8-write").toFile();
+        File[] files = KubernetesResourceUtil.writeResource(list, new File(dir, "both"), ResourceFileType.yaml, ResourceFileType.json);
+        File yamlFile = KubernetesResourceUtil.writeResource(list, new File(dir, "yaml-only"), ResourceFileType.yaml);
+        File jsonFile = KubernetesResourceUtil.writeResource(list, new File(dir, "json-only"), ResourceFileType.json);
+
+        assertEquals(2, files.length);
+        assertTrue(files[0].getName().endsWith(".yml"));
+        assertTrue(files[1].getName().endsWith(".json"));
+        assertArrayEquals(Files.readAllBytes(yamlFile.toPath()), Files.readAllBytes(files[0].toPath()));
+        assertArrayEquals(Files.readAllBytes(jsonFile.toPath()), Files.readAllBytes(files[1].toPath()));
+    }
+}
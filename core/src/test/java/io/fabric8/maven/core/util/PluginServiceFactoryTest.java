@@ -60,6 +60,21 @@ public class PluginServiceFactoryTest {
         }
     }
 
+    @Test
+    public void lazyCreation() {
+        List<PluginServiceFactory.LazyService<TestService>> services =
+                pluginServiceFactory.createLazyServiceObjects("service/test-services-named");
+        assertEquals(2, services.size());
+        PluginServiceFactory.LazyService<TestService> first = services.get(0);
+        assertEquals("two", first.getName());
+        assertEquals("one", services.get(1).getName());
+        assertFalse(first.isCreated());
+        assertEquals("two", first.get().getName());
+        assertTrue(first.isCreated());
+        assertSame(first.get(), first.get());
+        assertFalse(services.get(1).isCreated());
+    }
+
     @Test(expected = ClassCastException.class)
     public void classCastException() {
         List<String> services = pluginServiceFactory.createServiceObjects("service/test-services");
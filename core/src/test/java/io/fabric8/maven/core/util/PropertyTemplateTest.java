@@ -0,0 +1,69 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.core.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+
+import io.fabric8.maven.core.config.ProcessorConfig;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PropertyTemplateTest {
+
+    @Test
+    public void interpolate() {
+        Properties props = new Properties();
+        props.put("host", "docs.example.com");
+        props.put("version", "1.0");
+        LayeredProperties lookup = new LayeredProperties().add(props);
+
+        Object[] data = {
+            "http://${host}/${version}/", "http://docs.example.com/1.0/",
+            "${host}${version}", "docs.example.com1.0",
+            "plain", "plain",
+            "${unknown}/${version}", "${unknown}/1.0",
+            "open ${host", "open ${host",
+            "", ""
+        };
+        for (int i = 0; i < data.length; i += 2) {
+            assertEquals(data[i + 1], PropertyTemplate.interpolate((String) data[i], lookup));
+        }
+        assertEquals(Arrays.asList("host", "version"), PropertyTemplate.compile("${host}:${version}").getKeys());
+    }
+
+    @Test
+    public void layers() {
+        Properties project = new Properties();
+        project.put("a", "project");
+        ProcessorConfig config =
+            new ProcessorConfig(null, null, Collections.singletonMap("b", "config"));
+        String sysKey = "fabric8.test.propertyTemplate";
+        System.setProperty(sysKey, "system");
+        try {
+            LayeredProperties lookup = LayeredProperties.create(project, config);
+            assertEquals("project config system ${c}",
+                         PropertyTemplate.interpolate("${a} ${b} ${" + sysKey + "} ${c}", lookup));
+            project.put(sysKey, "override");
+            assertEquals("override", lookup.lookup(sysKey));
+        } finally {
+            System.clearProperty(sysKey);
+        }
+    }
+}
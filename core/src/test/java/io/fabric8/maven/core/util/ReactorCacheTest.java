@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.core.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class ReactorCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void computeOnce() throws IOException {
+        ReactorCache cache = new ReactorCache();
+        final AtomicInteger calls = new AtomicInteger();
+        Callable<String> loader = new Callable<String>() {
+            @Override
+            public String call() {
+                return "value-" + calls.incrementAndGet();
+            }
+        };
+        assertEquals("value-1", cache.get("key", loader));
+        assertEquals("value-1", cache.get("key", loader));
+        assertEquals(1, calls.get());
+        assertEquals("value-2", cache.get("other", loader));
+    }
+
+    @Test
+    public void failuresAreNotCached() throws IOException {
+        ReactorCache cache = new ReactorCache();
+        try {
+            cache.get("key", new Callable<String>() {
+                @Override
+                public String call() throws IOException {
+                    throw new IOException("failed");
+                }
+            });
+            fail();
+        } catch (IOException exp) {
+            assertEquals("failed", exp.getMessage());
+        }
+        assertEquals("ok", cache.get("key", new Callable<String>() {
+            @Override
+            public String call() {
+                return "ok";
+            }
+        }));
+    }
+
+    @Test
+    public void sharedBetweenModules() {
+        MavenSession session = createSession();
+        // Maven clones the session for every module
+        MavenSession moduleSession = session.clone();
+        assertSame(ReactorCache.getInstance(session), ReactorCache.getInstance(moduleSession));
+        assertNotSame(ReactorCache.getInstance(session), ReactorCache.getInstance(createSession()));
+        assertNotSame(ReactorCache.getInstance(null), ReactorCache.getInstance(null));
+    }
+
+    @Test
+    public void resourcesPerClassLoader() throws IOException {
+        File dir = folder.newFolder("realm");
+        new File(dir, "reactor-cache-test").mkdirs();
+        new File(dir, "reactor-cache-test/descriptor").createNewFile();
+
+        ReactorCache cache = new ReactorCache();
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        try {
+            thread.setContextClassLoader(new URLClassLoader(new URL[] { dir.toURI().toURL() }, null));
+            assertEquals(1, cache.getResources("reactor-cache-test/descriptor").size());
+
+            // Another module's plugin realm must not get the result looked up for the first one
+            thread.setContextClassLoader(new URLClassLoader(new URL[0], null));
+            assertEquals(0, cache.getResources("reactor-cache-test/descriptor").size());
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+    }
+
+    private MavenSession createSession() {
+        return new MavenSession(null, null, new DefaultMavenExecutionRequest(), new DefaultMavenExecutionResult());
+    }
+}
@@ -16,11 +16,14 @@
 
 package io.fabric8.maven.enricher.api;
 
+import java.io.IOException;
 import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
 import java.util.*;
+import java.util.concurrent.Callable;
 
 import io.fabric8.kubernetes.api.KubernetesHelper;
-import io.fabric8.kubernetes.api.model.Service;
 import io.fabric8.kubernetes.client.ConfigBuilder;
 import io.fabric8.kubernetes.client.DefaultKubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClient;
@@ -34,6 +37,10 @@ abstract public class AbstractLiveEnricher extends BaseEnricher {
 
     private KubernetesClient kubernetesClient;
 
+    // Global property holding the time budget in seconds for all cluster lookups of a build
+    private static final String LOOKUP_BUDGET_PROP = "fabric8.online.lookupBudget";
+    private static final long DEFAULT_LOOKUP_BUDGET_SECONDS = 60;
+
     private enum Config implements Configs.Key {
         online;
 
@@ -79,13 +86,17 @@ abstract public class AbstractLiveEnricher extends BaseEnricher {
             getLog().info("Not looking for service " + serviceName + " as we are in offline mode");
             return null;
         } else {
+            CircuitBreaker breaker = getCircuitBreaker();
+            String skipReason = breaker.checkLookupAllowed();
+            if (skipReason != null) {
+                getLog().debug("Not looking for service %s: %s", serviceName, skipReason);
+                return null;
+            }
+            long start = System.nanoTime();
             try {
                 KubernetesClient kubernetes = getKubernetes();
                 String ns = kubernetes.getNamespace();
-                Service service = kubernetes.services().inNamespace(ns).withName(serviceName).get();
-                return service != null ?
-                    KubernetesHelper.getServiceURL(kubernetes, serviceName, ns, protocol, true) :
-                    null;
+                return getServiceUrlSnapshot(kubernetes, ns).getServiceURL(kubernetes, ns, serviceName, protocol);
             } catch (Throwable e) {
                 Throwable cause = e;
 
@@ -94,9 +105,13 @@ abstract public class AbstractLiveEnricher extends BaseEnricher {
                 Stack<Throwable> stack = unfoldExceptions(e);
                 while (!stack.isEmpty()) {
                     Throwable t = stack.pop();
-                    if (t instanceof ConnectException || "No route to host".equals(t.getMessage())) {
+                    if (t instanceof ConnectException || t instanceof UnknownHostException ||
+                        t instanceof SocketTimeoutException || "No route to host".equals(t.getMessage())) {
                         getLog().warn("Cannot connect to Kubernetes to find URL for service %s : %s",
                                       serviceName, cause.getMessage());
+                        if (breaker.open("Cannot connect to Kubernetes")) {
+                            warnBreakerOpened(breaker);
+                        }
                         return null;
                     } else if (t instanceof IllegalArgumentException ||
                                t.getMessage() != null && t.getMessage().matches("^No.*found.*$")) {
@@ -106,10 +121,18 @@ abstract public class AbstractLiveEnricher extends BaseEnricher {
                 }
                 getLog().warn("Cannot find URL for service %s : %s", serviceName, cause.getMessage());
                 return null;
+            } finally {
+                if (breaker.recordLookup(System.nanoTime() - start)) {
+                    warnBreakerOpened(breaker);
+                }
             }
         }
     }
 
+    private void warnBreakerOpened(CircuitBreaker breaker) {
+        getLog().warn("%s. Skipping all further cluster lookups of this build", breaker.checkLookupAllowed());
+    }
+
     /**
      * Creates an Iterable to walk the exception from the bottom up
      * (the last caused by going upwards to the root exception).
@@ -141,7 +164,49 @@ abstract public class AbstractLiveEnricher extends BaseEnricher {
         return value != null ? Boolean.valueOf(value) : null;
     }
 
-    private KubernetesClient getKubernetes() {
+    // Shared by all live enrichers of all modules in the build
+    private CircuitBreaker getCircuitBreaker() {
+        try {
+            return getContext().getReactorCache().get(CircuitBreaker.class.getName(), new Callable<CircuitBreaker>() {
+                @Override
+                public CircuitBreaker call() {
+                    return new CircuitBreaker(getLookupBudget());
+                }
+            });
+        } catch (IOException e) {
+            // Can't happen since creating the breaker doesn't do any I/O
+            throw new IllegalStateException("Cannot create circuit breaker: " + e, e);
+        }
+    }
+
+    // Fetched once per namespace and build, shared by all live enrichers
+    private ServiceUrlSnapshot getServiceUrlSnapshot(final KubernetesClient kubernetes, final String ns) throws IOException {
+        return getContext().getReactorCache().get("serviceUrls:" + ns, new Callable<ServiceUrlSnapshot>() {
+            @Override
+            public ServiceUrlSnapshot call() {
+                return ServiceUrlSnapshot.load(kubernetes, ns);
+            }
+        });
+    }
+
+    private long getLookupBudget() {
+        String value = getProject().getProperties().getProperty(LOOKUP_BUDGET_PROP);
+        if (value == null) {
+            value = System.getProperty(LOOKUP_BUDGET_PROP);
+        }
+        if (value == null) {
+            return DEFAULT_LOOKUP_BUDGET_SECONDS;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                String.format("Invalid value '%s' for %s: Must be the number of seconds which cluster lookups " +
+                              "may take in total", value, LOOKUP_BUDGET_PROP), e);
+        }
+    }
+
+    private synchronized KubernetesClient getKubernetes() {
         if (kubernetesClient == null) {
             String namespace = getNamespace();
             kubernetesClient = new DefaultKubernetesClient(new ConfigBuilder().withNamespace(namespace).build());
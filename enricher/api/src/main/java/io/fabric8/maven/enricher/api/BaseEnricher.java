@@ -25,6 +25,9 @@ import org.apache.maven.project.MavenProject;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * @author roland
@@ -66,6 +69,7 @@ public abstract class BaseEnricher implements Enricher {
 
     @Override
     public Map<String, String> getSelector(Kind kind) { return null; }
+
     protected MavenProject getProject() {
         return buildContext.getProject();
     }
@@ -90,4 +94,28 @@ public abstract class BaseEnricher implements Enricher {
     protected EnricherContext getContext() {
         return buildContext;
     }
+
+    /**
+     * Wait for the result of a prefetch task
+     *
+     * @param future future as obtained when submitting the task in {@link PrefetchingEnricher#prefetch(ExecutorService)}
+     * @return the result of the task
+     */
+    protected <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + name, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Cannot prefetch for " + name + ": " + cause, cause);
+        }
+    }
 }
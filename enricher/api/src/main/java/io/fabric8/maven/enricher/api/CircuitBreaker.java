@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.enricher.api;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker shared by all live enrichers of a build. It opens after the first failure to
+ * connect to the cluster or when the time spent in cluster lookups exceeds a budget. Once open,
+ * no further lookups are tried for the rest of the build.
+ */
+class CircuitBreaker {
+
+    private final long budgetNanos;
+
+    // Time spent in lookups so far
+    private long spentNanos;
+
+    private boolean open;
+
+    private String openReason;
+
+    /**
+     * Create a breaker
+     *
+     * @param budgetSeconds total time which all lookups together might take, a value &lt;= 0 means no limit
+     */
+    CircuitBreaker(long budgetSeconds) {
+        this.budgetNanos = budgetSeconds > 0 ? TimeUnit.SECONDS.toNanos(budgetSeconds) : 0;
+    }
+
+    /**
+     * Check whether a lookup should be done
+     *
+     * @return null if the lookup can be done, the reason why not otherwise
+     */
+    synchronized String checkLookupAllowed() {
+        return open ? openReason : null;
+    }
+
+    /**
+     * Record the time spent in a lookup. Opens the breaker if the budget is used up.
+     *
+     * @param nanos duration of the lookup
+     * @return true if this call opened the breaker
+     */
+    synchronized boolean recordLookup(long nanos) {
+        spentNanos += nanos;
+        if (budgetNanos > 0 && spentNanos > budgetNanos) {
+            return open("Time budget of " + TimeUnit.NANOSECONDS.toSeconds(budgetNanos) +
+                        "s for cluster lookups exceeded");
+        }
+        return false;
+    }
+
+    /**
+     * Open the breaker
+     *
+     * @param reason why further lookups should not be done
+     * @return true if this call opened the breaker, false if it was already open
+     */
+    synchronized boolean open(String reason) {
+        if (open) {
+            return false;
+        }
+        open = true;
+        openReason = reason;
+        return true;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.enricher.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import io.fabric8.kubernetes.api.builder.TypedVisitor;
+
+/**
+ * Visitor applying multiple {@link EnricherVisitor}s within a single traversal. For every
+ * concrete class visited, the matching visitors are looked up once and stored in a dispatch table,
+ * so that visiting a node costs a single map lookup regardless of the number of visitors.
+ * Matching visitors are called in the order in which they have been given.
+ */
+public class DispatchingVisitor extends TypedVisitor<Object> {
+
+    private static final EnricherVisitor<?>[] NO_VISITORS = new EnricherVisitor<?>[0];
+
+    private final EnricherVisitor<?>[] visitors;
+
+    // Concrete class to visitors which are responsible for this class
+    private final ConcurrentMap<Class<?>, EnricherVisitor<?>[]> dispatchTable = new ConcurrentHashMap<>();
+
+    public DispatchingVisitor(EnricherVisitor<?>... visitors) {
+        this(Arrays.asList(visitors));
+    }
+
+    public DispatchingVisitor(List<? extends EnricherVisitor<?>> visitors) {
+        this.visitors = visitors.toArray(new EnricherVisitor<?>[visitors.size()]);
+    }
+
+    @Override
+    public Class<Object> getType() {
+        return Object.class;
+    }
+
+    @Override
+    public void visit(Object item) {
+        for (EnricherVisitor<?> visitor : lookup(item.getClass())) {
+            visitor.dispatch(item);
+        }
+    }
+
+    private EnricherVisitor<?>[] lookup(Class<?> clazz) {
+        EnricherVisitor<?>[] ret = dispatchTable.get(clazz);
+        if (ret == null) {
+            List<EnricherVisitor<?>> matching = new ArrayList<>();
+            for (EnricherVisitor<?> visitor : visitors) {
+                if (visitor.getType().isAssignableFrom(clazz)) {
+                    matching.add(visitor);
+                }
+            }
+            ret = matching.isEmpty() ? NO_VISITORS : matching.toArray(new EnricherVisitor<?>[matching.size()]);
+            dispatchTable.putIfAbsent(clazz, ret);
+        }
+        return ret;
+    }
+}
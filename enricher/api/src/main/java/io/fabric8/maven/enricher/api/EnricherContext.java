@@ -20,6 +20,7 @@ import java.util.List;
 
 import io.fabric8.maven.core.config.ProcessorConfig;
 import io.fabric8.maven.core.config.ResourceConfig;
+import io.fabric8.maven.core.util.ReactorCache;
 import io.fabric8.maven.docker.config.ImageConfiguration;
 import io.fabric8.maven.docker.util.Logger;
 import org.apache.maven.project.MavenProject;
@@ -38,11 +39,23 @@ public class EnricherContext {
 
     private ProcessorConfig config;
 
+    private final ReactorCache reactorCache;
+
     public EnricherContext(MavenProject project,
                            ProcessorConfig config,
                            List<ImageConfiguration> images,
                            ResourceConfig kubernetesConfig,
                            Logger log) {
+        this(project, config, images, kubernetesConfig, log, null);
+    }
+
+    public EnricherContext(MavenProject project,
+                           ProcessorConfig config,
+                           List<ImageConfiguration> images,
+                           ResourceConfig kubernetesConfig,
+                           Logger log,
+                           ReactorCache reactorCache) {
+        this.reactorCache = reactorCache != null ? reactorCache : new ReactorCache();
         this.log = log;
         this.project = project;
         this.config = config;
@@ -66,6 +79,15 @@ public class EnricherContext {
         return config;
     }
 
+    /**
+     * Get the cache for information which is the same for all modules in a reactor build
+     *
+     * @return the cache, never null
+     */
+    public ReactorCache getReactorCache() {
+        return reactorCache;
+    }
+
     public ResourceConfig getResourceConfig() {
         return resourceConfig;
     }
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.enricher.api;
+
+import io.fabric8.kubernetes.api.builder.TypedVisitor;
+
+/**
+ * Visitor which declares its target type up front instead of having it resolved reflectively
+ * from the type parameter like a plain {@link TypedVisitor}. Multiple of these visitors can be
+ * combined into a single traversal with a {@link DispatchingVisitor}.
+ */
+public abstract class EnricherVisitor<T> extends TypedVisitor<T> {
+
+    private final Class<T> type;
+
+    protected EnricherVisitor(Class<T> type) {
+        this.type = type;
+    }
+
+    @Override
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Visit an item which is known to be of this visitor's type
+     *
+     * @param item item to visit
+     * @throws ClassCastException if the item is not of this visitor's type
+     */
+    void dispatch(Object item) {
+        visit(type.cast(item));
+    }
+}
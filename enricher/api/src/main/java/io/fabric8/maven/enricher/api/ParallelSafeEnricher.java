@@ -0,0 +1,25 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.enricher.api;
+
+/**
+ * Marker interface for enrichers whose {@link #getLabels(Kind)}, {@link #getAnnotations(Kind)}
+ * and {@link #getSelector(Kind)} are free of side effects and don't depend on other enrichers.
+ * These methods are then called concurrently with the ones of other enrichers. The results are
+ * still merged in the configured order of the enrichers.
+ */
+public interface ParallelSafeEnricher extends Enricher {
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.enricher.api;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Interface for enrichers which compute expensive inputs ahead of time. Enrichers not implementing
+ * this interface simply do all of their work when called for enrichment.
+ */
+public interface PrefetchingEnricher extends Enricher {
+
+    /**
+     * Start the computation of expensive inputs which don't depend on the resources
+     * (like git metadata or service URLs). This is called early, before the resource
+     * fragments are processed, so that the work overlaps with this processing. An enricher
+     * submits its tasks to the given executor and joins the returned futures when the
+     * results are needed.
+     *
+     * @param executor executor to run the prefetch tasks on
+     * @return futures for the submitted tasks, empty if nothing is prefetched
+     */
+    List<Future<?>> prefetch(ExecutorService executor);
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.enricher.api;
+
+import java.util.*;
+
+import io.fabric8.kubernetes.api.KubernetesHelper;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServicePort;
+import io.fabric8.kubernetes.api.model.ServiceSpec;
+import io.fabric8.kubernetes.api.model.extensions.HTTPIngressPath;
+import io.fabric8.kubernetes.api.model.extensions.HTTPIngressRuleValue;
+import io.fabric8.kubernetes.api.model.extensions.Ingress;
+import io.fabric8.kubernetes.api.model.extensions.IngressBackend;
+import io.fabric8.kubernetes.api.model.extensions.IngressList;
+import io.fabric8.kubernetes.api.model.extensions.IngressRule;
+import io.fabric8.kubernetes.api.model.extensions.IngressSpec;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.openshift.api.model.Route;
+import io.fabric8.openshift.api.model.RouteList;
+import io.fabric8.openshift.client.OpenShiftClient;
+import io.fabric8.utils.Strings;
+
+/**
+ * Immutable view on the services, routes and ingresses of a namespace, fetched with
+ * one list call per kind. External service URLs are resolved locally from this
+ * snapshot so that enrichers don't need to query the cluster for every service.
+ *
+ * Listing requires the <code>list</code> verb on these kinds. If a list call is forbidden,
+ * every service is looked up individually with {@link KubernetesHelper#getServiceURL}, which
+ * only needs <code>get</code>.
+ */
+class ServiceUrlSnapshot {
+
+    // Annotation holding an explicitly exposed URL, which takes precedence over everything else
+    static final String EXPOSE_URL_ANNOTATION = "fabric8.io/exposeUrl";
+
+    private static final int HTTP_FORBIDDEN = 403;
+
+    // Snapshot which resolves every service with a separate lookup
+    private static final ServiceUrlSnapshot PER_SERVICE_LOOKUP = new ServiceUrlSnapshot();
+
+    // All null for PER_SERVICE_LOOKUP
+    private final Map<String, Service> services;
+
+    // Host names by service name
+    private final Map<String, String> routeHosts;
+
+    // "host/path" by service name
+    private final Map<String, String> ingressHosts;
+
+    private ServiceUrlSnapshot() {
+        this.services = null;
+        this.routeHosts = null;
+        this.ingressHosts = null;
+    }
+
+    ServiceUrlSnapshot(Collection<Service> services, Collection<Route> routes, Collection<Ingress> ingresses) {
+        Map<String, Service> serviceMap = new HashMap<>();
+        for (Service service : services) {
+            serviceMap.put(KubernetesHelper.getName(service), service);
+        }
+        this.services = Collections.unmodifiableMap(serviceMap);
+        this.routeHosts = Collections.unmodifiableMap(extractRouteHosts(routes));
+        this.ingressHosts = Collections.unmodifiableMap(extractIngressHosts(ingresses));
+    }
+
+    /**
+     * Fetch all services, routes and ingresses of a namespace
+     *
+     * @param kubernetes client to use
+     * @param namespace namespace to look into
+     * @return the snapshot
+     */
+    static ServiceUrlSnapshot load(KubernetesClient kubernetes, String namespace) {
+        try {
+            return new ServiceUrlSnapshot(kubernetes.services().inNamespace(namespace).list().getItems(),
+                                          listRoutes(kubernetes, namespace),
+                                          listIngresses(kubernetes, namespace));
+        } catch (KubernetesClientException exp) {
+            return handleListError(exp);
+        }
+    }
+
+    // Fall back to a lookup per service if listing is not allowed
+    static ServiceUrlSnapshot handleListError(KubernetesClientException exp) {
+        if (exp.getCode() == HTTP_FORBIDDEN) {
+            return PER_SERVICE_LOOKUP;
+        }
+        throw exp;
+    }
+
+    /**
+     * @return true if services are not resolved from the snapshot but looked up one by one
+     */
+    boolean isPerServiceLookup() {
+        return services == null;
+    }
+
+    /**
+     * Get the external URL of a service. An URL exposed via annotation is preferred over a route,
+     * which is preferred over an ingress. If there is neither, the cluster IP and first port of the
+     * service is used.
+     *
+     * @param kubernetes client used when services have to be looked up one by one
+     * @param namespace namespace of the service
+     * @param serviceName name of the service
+     * @param protocol protocol to use for the URL
+     * @return the URL or null if there is no such service or it has no usable address
+     */
+    String getServiceURL(KubernetesClient kubernetes, String namespace, String serviceName, String protocol) {
+        if (isPerServiceLookup()) {
+            Service service = kubernetes.services().inNamespace(namespace).withName(serviceName).get();
+            return service != null ?
+                KubernetesHelper.getServiceURL(kubernetes, serviceName, namespace, protocol, true) :
+                null;
+        }
+        Service service = services.get(serviceName);
+        if (service == null) {
+            return null;
+        }
+        String exposedUrl = getExposedURL(service);
+        if (Strings.isNotBlank(exposedUrl)) {
+            return exposedUrl;
+        }
+        String host = routeHosts.get(serviceName);
+        if (host == null) {
+            host = ingressHosts.get(serviceName);
+        }
+        if (host != null) {
+            return (protocol + "://" + host).toLowerCase();
+        }
+        return getClusterIPURL(service, protocol);
+    }
+
+    private static String getExposedURL(Service service) {
+        ObjectMeta metadata = service.getMetadata();
+        Map<String, String> annotations = metadata != null ? metadata.getAnnotations() : null;
+        return annotations != null ? annotations.get(EXPOSE_URL_ANNOTATION) : null;
+    }
+
+    private static String getClusterIPURL(Service service, String protocol) {
+        ServiceSpec spec = service.getSpec();
+        if (spec == null) {
+            return null;
+        }
+        String clusterIP = spec.getClusterIP();
+        List<ServicePort> ports = spec.getPorts();
+        if (Strings.isNullOrBlank(clusterIP) || "None".equals(clusterIP) || ports == null || ports.isEmpty()) {
+            return null;
+        }
+        return (protocol + "://" + clusterIP + ":" + ports.get(0).getPort()).toLowerCase();
+    }
+
+    private static List<Route> listRoutes(KubernetesClient kubernetes, String namespace) {
+        if (!KubernetesHelper.isOpenShift(kubernetes)) {
+            return Collections.emptyList();
+        }
+        RouteList routes = kubernetes.adapt(OpenShiftClient.class).routes().inNamespace(namespace).list();
+        return routes != null && routes.getItems() != null ? routes.getItems() : Collections.<Route>emptyList();
+    }
+
+    private static List<Ingress> listIngresses(KubernetesClient kubernetes, String namespace) {
+        IngressList ingresses;
+        try {
+            ingresses = kubernetes.extensions().ingresses().inNamespace(namespace).list();
+        } catch (KubernetesClientException exp) {
+            if (exp.getCode() == HTTP_FORBIDDEN) {
+                throw exp;
+            }
+            // Older clusters don't know about ingresses
+            return Collections.emptyList();
+        }
+        return ingresses != null && ingresses.getItems() != null ? ingresses.getItems() : Collections.<Ingress>emptyList();
+    }
+
+    // Routes are looked up by the name of the service, like KubernetesHelper does
+    private static Map<String, String> extractRouteHosts(Collection<Route> routes) {
+        Map<String, String> ret = new HashMap<>();
+        for (Route route : routes) {
+            if (route.getSpec() != null && Strings.isNotBlank(route.getSpec().getHost())) {
+                ret.put(KubernetesHelper.getName(route), route.getSpec().getHost());
+            }
+        }
+        return ret;
+    }
+
+    // The first rule with a host pointing to a service wins
+    private static Map<String, String> extractIngressHosts(Collection<Ingress> ingresses) {
+        Map<String, String> ret = new HashMap<>();
+        for (Ingress ingress : ingresses) {
+            IngressSpec spec = ingress.getSpec();
+            if (spec == null || spec.getRules() == null) {
+                continue;
+            }
+            for (IngressRule rule : spec.getRules()) {
+                HTTPIngressRuleValue http = rule.getHttp();
+                if (Strings.isNullOrBlank(rule.getHost()) || http == null || http.getPaths() == null) {
+                    continue;
+                }
+                for (HTTPIngressPath path : http.getPaths()) {
+                    IngressBackend backend = path.getBackend();
+                    if (backend != null && backend.getServiceName() != null && !ret.containsKey(backend.getServiceName())) {
+                        ret.put(backend.getServiceName(), rule.getHost() + getPath(path));
+                    }
+                }
+            }
+        }
+        return ret;
+    }
+
+    private static String getPath(HTTPIngressPath path) {
+        String ret = path.getPath();
+        return Strings.isNullOrBlank(ret) || "/".equals(ret) ? "" : ret;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.enricher.api;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CircuitBreakerTest {
+
+    @Test
+    public void openOnFailure() {
+        CircuitBreaker breaker = new CircuitBreaker(60);
+        assertNull(breaker.checkLookupAllowed());
+        assertTrue(breaker.open("Cannot connect"));
+        // Only the first call reports the trip, so that it is logged only once
+        assertFalse(breaker.open("Cannot connect again"));
+        assertEquals("Cannot connect", breaker.checkLookupAllowed());
+    }
+
+    @Test
+    public void budgetCountsOnlyLookupTime() {
+        CircuitBreaker breaker = new CircuitBreaker(10);
+        for (int i = 0; i < 9; i++) {
+            assertFalse(breaker.recordLookup(TimeUnit.SECONDS.toNanos(1)));
+        }
+        assertNull(breaker.checkLookupAllowed());
+        assertTrue(breaker.recordLookup(TimeUnit.SECONDS.toNanos(2)));
+        assertNotNull(breaker.checkLookupAllowed());
+        assertFalse(breaker.recordLookup(TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    @Test
+    public void noBudget() {
+        CircuitBreaker breaker = new CircuitBreaker(0);
+        assertFalse(breaker.recordLookup(TimeUnit.HOURS.toNanos(1)));
+        assertNull(breaker.checkLookupAllowed());
+    }
+
+    @Test
+    public void budgetPerBreaker() {
+        CircuitBreaker exhausted = new CircuitBreaker(1);
+        assertTrue(exhausted.recordLookup(TimeUnit.SECONDS.toNanos(2)));
+        assertNotNull(exhausted.checkLookupAllowed());
+
+        CircuitBreaker breaker = new CircuitBreaker(1);
+        assertNull(breaker.checkLookupAllowed());
+        assertFalse(breaker.recordLookup(TimeUnit.MILLISECONDS.toNanos(500)));
+        assertTrue(breaker.open("Cannot connect"));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.enricher.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.api.model.extensions.Deployment;
+import io.fabric8.kubernetes.api.model.extensions.DeploymentBuilder;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DispatchingVisitorTest {
+
+    private final List<String> calls = new ArrayList<>();
+
+    @Test
+    public void dispatchByType() {
+        DispatchingVisitor visitor = new DispatchingVisitor(
+            new RecordingVisitor<>("service", Service.class),
+            new RecordingVisitor<>("deployment", Deployment.class));
+
+        visitor.visit(new ServiceBuilder().build());
+        visitor.visit(new DeploymentBuilder().build());
+        visitor.visit("not a resource");
+
+        assertEquals(Arrays.asList("service", "deployment"), calls);
+    }
+
+    @Test
+    public void supertypesInGivenOrder() {
+        DispatchingVisitor visitor = new DispatchingVisitor(
+            new RecordingVisitor<>("deployment", Deployment.class),
+            new RecordingVisitor<>("metadata", HasMetadata.class),
+            new RecordingVisitor<>("object", Object.class));
+
+        visitor.visit(new DeploymentBuilder().build());
+        assertEquals(Arrays.asList("deployment", "metadata", "object"), calls);
+
+        calls.clear();
+        visitor.visit(new ServiceBuilder().build());
+        assertEquals(Arrays.asList("metadata", "object"), calls);
+    }
+
+    @Test
+    public void repeatedVisitsUseSameVisitors() {
+        DispatchingVisitor visitor = new DispatchingVisitor(Arrays.asList(
+            new RecordingVisitor<>("service", Service.class),
+            new RecordingVisitor<>("metadata", HasMetadata.class)));
+
+        for (int i = 0; i < 3; i++) {
+            visitor.visit(new ServiceBuilder().build());
+        }
+        assertEquals(Arrays.asList("service", "metadata", "service", "metadata", "service", "metadata"), calls);
+    }
+
+    private class RecordingVisitor<T> extends EnricherVisitor<T> {
+
+        private final String name;
+
+        private RecordingVisitor(String name, Class<T> type) {
+            super(type);
+            this.name = name;
+        }
+
+        @Override
+        public void visit(T item) {
+            calls.add(name);
+        }
+    }
+}
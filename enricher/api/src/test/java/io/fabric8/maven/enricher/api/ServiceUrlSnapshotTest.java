@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.enricher.api;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.api.model.extensions.Ingress;
+import io.fabric8.kubernetes.api.model.extensions.IngressBuilder;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.openshift.api.model.Route;
+import io.fabric8.openshift.api.model.RouteBuilder;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ServiceUrlSnapshotTest {
+
+    // No client given in the tests, so any cluster access would fail
+
+    @Test
+    public void unknownServiceWithoutLookup() {
+        ServiceUrlSnapshot snapshot = snapshot(Collections.singletonList(service("known", "10.0.0.1", 80)),
+                                               Collections.<Route>emptyList(), Collections.<Ingress>emptyList());
+        assertNull(snapshot.getServiceURL(null, "default", "unknown", "http"));
+    }
+
+    @Test
+    public void plainService() {
+        ServiceUrlSnapshot snapshot = snapshot(Arrays.asList(service("svc", "10.0.0.1", 8080),
+                                                             service("headless", "None", 8080)),
+                                               Collections.<Route>emptyList(), Collections.<Ingress>emptyList());
+        assertEquals("http://10.0.0.1:8080", snapshot.getServiceURL(null, "default", "svc", "http"));
+        assertNull(snapshot.getServiceURL(null, "default", "headless", "http"));
+    }
+
+    @Test
+    public void route() {
+        ServiceUrlSnapshot snapshot = snapshot(Collections.singletonList(service("svc", "10.0.0.1", 8080)),
+                                               Collections.singletonList(route("svc", "svc.example.com")),
+                                               Collections.singletonList(ingress("svc", "ingress.example.com", "/svc")));
+        // Route wins over ingress
+        assertEquals("https://svc.example.com", snapshot.getServiceURL(null, "default", "svc", "https"));
+    }
+
+    @Test
+    public void ingress() {
+        ServiceUrlSnapshot snapshot = snapshot(Arrays.asList(service("svc", "10.0.0.1", 8080),
+                                                             service("root", "10.0.0.2", 8080)),
+                                               Collections.singletonList(route("other", "other.example.com")),
+                                               Arrays.asList(ingress("svc", "ingress.example.com", "/svc"),
+                                                             ingress("root", "root.example.com", "/")));
+        assertEquals("http://ingress.example.com/svc", snapshot.getServiceURL(null, "default", "svc", "http"));
+        assertEquals("http://root.example.com", snapshot.getServiceURL(null, "default", "root", "http"));
+    }
+
+    @Test
+    public void exposedUrl() {
+        Service service = new ServiceBuilder(service("svc", "10.0.0.1", 8080))
+            .editMetadata().addToAnnotations(ServiceUrlSnapshot.EXPOSE_URL_ANNOTATION, "http://exposed.example.com/").endMetadata()
+            .build();
+        ServiceUrlSnapshot snapshot = snapshot(Collections.singletonList(service),
+                                               Collections.singletonList(route("svc", "svc.example.com")),
+                                               Collections.<Ingress>emptyList());
+        assertEquals("http://exposed.example.com/", snapshot.getServiceURL(null, "default", "svc", "http"));
+    }
+
+    @Test
+    public void forbiddenListFallsBackToLookups() {
+        ServiceUrlSnapshot snapshot =
+            ServiceUrlSnapshot.handleListError(new KubernetesClientException("Forbidden", 403, null));
+        assertTrue(snapshot.isPerServiceLookup());
+        assertFalse(snapshot(Collections.<Service>emptyList(), Collections.<Route>emptyList(),
+                             Collections.<Ingress>emptyList()).isPerServiceLookup());
+    }
+
+    @Test(expected = KubernetesClientException.class)
+    public void otherListErrorsPropagate() {
+        ServiceUrlSnapshot.handleListError(new KubernetesClientException("Internal error", 500, null));
+    }
+
+    private ServiceUrlSnapshot snapshot(List<Service> services, List<Route> routes,
+                                        List<Ingress> ingresses) {
+        return new ServiceUrlSnapshot(services, routes, ingresses);
+    }
+
+    private Service service(String name, String clusterIP, int port) {
+        return new ServiceBuilder()
+            .withNewMetadata().withName(name).endMetadata()
+            .withNewSpec().withClusterIP(clusterIP).addNewPort().withPort(port).endPort().endSpec()
+            .build();
+    }
+
+    private Route route(String name, String host) {
+        return new RouteBuilder()
+            .withNewMetadata().withName(name).endMetadata()
+            .withNewSpec().withHost(host).endSpec()
+            .build();
+    }
+
+    private Ingress ingress(String serviceName, String host, String path) {
+        return new IngressBuilder()
+            .withNewMetadata().withName(serviceName + "-ingress").endMetadata()
+            .withNewSpec()
+            .addNewRule()
+            .withHost(host)
+            .withNewHttp()
+            .addNewPath().withPath(path).withNewBackend().withServiceName(serviceName).endBackend().endPath()
+            .endHttp()
+            .endRule()
+            .endSpec()
+            .build();
+    }
+}
@@ -26,15 +26,20 @@ import io.fabric8.utils.Strings;
 import io.fabric8.utils.Systems;
 import io.fabric8.utils.URLUtils;
 import org.apache.maven.project.MavenProject;
-import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Repository;
-import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * Enricher for adding build metadata:
@@ -49,7 +54,7 @@ import java.util.Map;
  *
  * @since 01/05/16
  */
-public class BuildEnricher extends AbstractLiveEnricher {
+public class BuildEnricher extends AbstractLiveEnricher implements ParallelSafeEnricher, PrefetchingEnricher {
 
     // Available configuration keys
     private enum Config implements Configs.Key {
@@ -60,6 +65,9 @@ public class BuildEnricher extends AbstractLiveEnricher {
         public String def() { return d; } protected String d;
     }
 
+    // Annotations computed in the background, if prefetched
+    private Future<Map<String, String>> buildAnnotations;
+
     public BuildEnricher(EnricherContext buildContext) {
         super(buildContext, "build");
 
@@ -73,34 +81,56 @@ public class BuildEnricher extends AbstractLiveEnricher {
         return isInCDBuild();
     }
 
+    @Override
+    public List<Future<?>> prefetch(ExecutorService executor) {
+        buildAnnotations = executor.submit(new Callable<Map<String, String>>() {
+            @Override
+            public Map<String, String> call() {
+                return extractBuildAnnotations();
+            }
+        });
+        return Collections.<Future<?>>singletonList(buildAnnotations);
+    }
+
     @Override
     public Map<String, String> getAnnotations(Kind kind) {
-        Map<String, String> annotations = new HashMap<>();
         if (kind.isDeployOrReplicaKind() || kind.isService()) {
-            MavenProject rootProject = MavenUtil.getRootProject(getProject());
-            String repoName = rootProject.getArtifactId();
-
-            // Git annotations (if git is used as SCM)
-            Repository repository = getGitRepository(rootProject);
-            if (repository != null) {
-                addGitBranch(annotations, repository);
-                if (isOnline()) {
-                    String gitCommitId = getAndAddGitCommitId(annotations, repository);
-                    if (gitCommitId != null) {
-                        addGitServiceUrl(annotations, repoName, gitCommitId);
-                    } else {
-                        log.debug("No Git commit id found");
-                    }
-                }
-            } else {
-                log.debug("No local Git repository found");
-            }
+            return new HashMap<>(buildAnnotations != null ? join(buildAnnotations) : extractBuildAnnotations());
+        }
+        return new HashMap<>();
+    }
+
+    // Annotations are the same for all kinds
+    private Map<String, String> extractBuildAnnotations() {
+        Map<String, String> annotations = new HashMap<>();
+        MavenProject rootProject = MavenUtil.getRootProject(getProject());
+        String repoName = rootProject.getArtifactId();
 
-            // Jenkins annotations
+        // Git annotations (if git is used as SCM)
+        File dotGit = GitMetadata.findDotGit(getBasedir(rootProject));
+        GitMetadata gitMetadata = dotGit != null ? lookupGitMetadata(dotGit, rootProject) : null;
+        if (gitMetadata != null) {
+            String branch = gitMetadata.getBranch();
+            if (Strings.isNotBlank(branch)) {
+                annotations.put(Annotations.Builds.GIT_BRANCH, branch);
+            }
             if (isOnline()) {
-                addJenkinsServiceUrl(annotations, repoName);
-            };
+                String gitCommitId = gitMetadata.getCommitId();
+                if (gitCommitId != null) {
+                    annotations.put(Annotations.Builds.GIT_COMMIT, gitCommitId);
+                    addGitServiceUrl(annotations, repoName, gitCommitId);
+                } else {
+                    log.debug("No Git commit id found");
+                }
+            }
+        } else {
+            log.debug("No local Git repository found");
         }
+
+        // Jenkins annotations
+        if (isOnline()) {
+            addJenkinsServiceUrl(annotations, repoName);
+        };
         return annotations;
     }
 
@@ -142,50 +172,47 @@ public class BuildEnricher extends AbstractLiveEnricher {
         return username;
     }
 
-    private void addGitBranch(Map<String, String> annotations, Repository repository) {
+    // The root repository is the same for all modules of a reactor build, so it is looked up only once
+    private GitMetadata lookupGitMetadata(final File dotGit, final MavenProject rootProject) {
         try {
-            String branch = repository.getBranch();
-            if (Strings.isNotBlank(branch)) {
-                annotations.put(Annotations.Builds.GIT_BRANCH, branch);
-            }
+            return getContext().getReactorCache().get("git:" + dotGit.getAbsolutePath(), new Callable<GitMetadata>() {
+                @Override
+                public GitMetadata call() throws IOException {
+                    GitMetadata ret =
+                        GitMetadata.isLocatedByEnvironment(System.getenv()) ? null : GitMetadata.read(dotGit);
+                    if (ret == null) {
+                        log.debug("Git repository %s located by environment or of unknown layout, using JGit", dotGit);
+                        ret = readGitMetadataWithJGit(rootProject);
+                    }
+                    return ret;
+                }
+            });
         } catch (IOException e) {
-            log.warn("Failed to find git branch: " + e, e);
-        } finally {
-            if (repository != null) {
-                repository.close();
-            }
+            log.warn("Failed to read git repository: " + e, e);
+            return null;
         }
     }
 
-    private String getAndAddGitCommitId(Map<String, String> annotations, Repository repository) {
+    private GitMetadata readGitMetadataWithJGit(MavenProject rootProject) {
+        Repository repository = getGitRepository(rootProject);
+        if (repository == null) {
+            return null;
+        }
         try {
-            if (repository != null) {
-                getLog().info("Looking at repo with directory " + repository.getDirectory());
-                Iterable<RevCommit> logs = new Git(repository).log().call();
-                for (RevCommit rev : logs) {
-                    String gitCommitId = rev.getName();
-                    annotations.put(Annotations.Builds.GIT_COMMIT, gitCommitId);
-                    return gitCommitId;
-                }
+            getLog().info("Looking at repo with directory " + repository.getDirectory());
+            ObjectId head = repository.resolve(Constants.HEAD);
+            if (head == null) {
                 log.warn("Cannot find git commit SHA as no commits could be found");
-            } else {
-                log.warn("Cannot find git commit SHA as no git repository could be found");
             }
-        } catch (Exception e) {
-            log.warn("Failed to find git commit id: " + e, e);
+            return new GitMetadata(repository.getBranch(), head != null ? head.getName() : null);
+        } catch (IOException e) {
+            log.warn("Failed to read git branch and commit: " + e, e);
+            return null;
         } finally {
-            if (repository != null) {
-                try {
-                    repository.close();
-                } catch (Exception e) {
-                    // ignore
-                }
-            }
+            repository.close();
         }
-        return null;
     }
 
-
     // ====================================================================================================
 
     private File getBasedir(MavenProject rootProject) {
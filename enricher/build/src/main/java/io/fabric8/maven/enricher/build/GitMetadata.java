@@ -0,0 +1,216 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.enricher.build;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Branch and HEAD commit of a git repository. They are read directly from <code>HEAD</code>, the loose refs and
+ * <code>packed-refs</code>, so the cost doesn't depend on the size of the history. Worktrees (where <code>.git</code>
+ * is a file pointing to the real git directory) are supported, too.
+ */
+class GitMetadata {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final String REF_PREFIX = "ref:";
+    private static final String GITDIR_PREFIX = "gitdir:";
+    private static final String BRANCH_PREFIX = "refs/heads/";
+
+    private static final Pattern SHA_PATTERN = Pattern.compile("^[0-9a-f]{40}$");
+
+    // Environment variables overriding the location of the git directory
+    private static final String[] GIT_LOCATION_ENV_VARS = { "GIT_DIR", "GIT_COMMON_DIR" };
+
+    // Maximum depth of symbolic refs to follow
+    private static final int MAX_SYMREF_DEPTH = 5;
+
+    private final String branch;
+    private final String commitId;
+
+    GitMetadata(String branch, String commitId) {
+        this.branch = branch;
+        this.commitId = commitId;
+    }
+
+    /**
+     * @return short name of the current branch or the commit id for a detached HEAD
+     */
+    String getBranch() {
+        return branch;
+    }
+
+    /**
+     * @return id of the HEAD commit or null if there is no commit yet
+     */
+    String getCommitId() {
+        return commitId;
+    }
+
+    /**
+     * Find the <code>.git</code> directory or file for a project directory, looking upwards from it.
+     *
+     * @param dir directory where to start the search
+     * @return the <code>.git</code> directory or file or null if the directory is not within a git repository
+     */
+    static File findDotGit(File dir) {
+        File current = dir.getAbsoluteFile();
+        while (current != null) {
+            File dotGit = new File(current, ".git");
+            if (dotGit.exists()) {
+                return dotGit;
+            }
+            current = current.getParentFile();
+        }
+        return null;
+    }
+
+    /**
+     * Check whether the location of the repository is given by environment variables like <code>GIT_DIR</code>.
+     * Such setups are left to a full git implementation.
+     *
+     * @param env environment to check
+     * @return true if the environment points to the git directory
+     */
+    static boolean isLocatedByEnvironment(Map<String, String> env) {
+        for (String var : GIT_LOCATION_ENV_VARS) {
+            String value = env.get(var);
+            if (value != null && value.trim().length() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Read branch and commit from the repository
+     *
+     * @param dotGit the <code>.git</code> directory or file as found by {@link #findDotGit(File)}
+     * @return the metadata or null if the layout of the repository is not understood. A caller should then
+     *         fall back to a full git implementation.
+     * @throws IOException if reading fails
+     */
+    static GitMetadata read(File dotGit) throws IOException {
+        File gitDir = resolveGitDir(dotGit);
+        if (gitDir == null) {
+            return null;
+        }
+        File commonDir = resolveCommonDir(gitDir);
+        String head = readFirstLine(new File(gitDir, "HEAD"));
+        if (head == null) {
+            return null;
+        }
+        if (SHA_PATTERN.matcher(head).matches()) {
+            // Detached HEAD
+            return new GitMetadata(head, head);
+        }
+        if (!head.startsWith(REF_PREFIX)) {
+            return null;
+        }
+        String ref = head.substring(REF_PREFIX.length()).trim();
+        String commitId = resolveRef(ref, gitDir, commonDir);
+        if (commitId == null) {
+            // E.g. an unborn branch or a ref storage which we don't know
+            return null;
+        }
+        String branch = ref.startsWith(BRANCH_PREFIX) ? ref.substring(BRANCH_PREFIX.length()) : ref;
+        return new GitMetadata(branch, commitId);
+    }
+
+    // ==========================================================================================
+
+    private static File resolveGitDir(File dotGit) throws IOException {
+        if (dotGit.isDirectory()) {
+            return dotGit;
+        }
+        String content = readFirstLine(dotGit);
+        if (content == null || !content.startsWith(GITDIR_PREFIX)) {
+            return null;
+        }
+        File gitDir = resolvePath(dotGit.getParentFile(), content.substring(GITDIR_PREFIX.length()).trim());
+        return gitDir.isDirectory() ? gitDir : null;
+    }
+
+    // Shared directory holding refs and packed-refs for worktrees, the git dir itself otherwise
+    private static File resolveCommonDir(File gitDir) throws IOException {
+        String commonDir = readFirstLine(new File(gitDir, "commondir"));
+        return commonDir != null ? resolvePath(gitDir, commonDir) : gitDir;
+    }
+
+    private static String resolveRef(String ref, File gitDir, File commonDir) throws IOException {
+        for (int depth = 0; depth < MAX_SYMREF_DEPTH; depth++) {
+            String value = readLooseRef(ref, gitDir, commonDir);
+            if (value == null) {
+                return readPackedRef(ref, commonDir);
+            }
+            if (SHA_PATTERN.matcher(value).matches()) {
+                return value;
+            }
+            if (!value.startsWith(REF_PREFIX)) {
+                return null;
+            }
+            ref = value.substring(REF_PREFIX.length()).trim();
+        }
+        return null;
+    }
+
+    private static String readLooseRef(String ref, File gitDir, File commonDir) throws IOException {
+        String value = readFirstLine(new File(gitDir, ref));
+        if (value == null && !commonDir.equals(gitDir)) {
+            value = readFirstLine(new File(commonDir, ref));
+        }
+        return value;
+    }
+
+    private static String readPackedRef(String ref, File commonDir) throws IOException {
+        File packedRefs = new File(commonDir, "packed-refs");
+        if (!packedRefs.isFile()) {
+            return null;
+        }
+        List<String> lines = java.nio.file.Files.readAllLines(packedRefs.toPath(), UTF8);
+        for (String line : lines) {
+            // Skip comments and peeled tags
+            if (line.startsWith("#") || line.startsWith("^")) {
+                continue;
+            }
+            int idx = line.indexOf(' ');
+            if (idx > 0 && ref.equals(line.substring(idx + 1).trim())) {
+                String sha = line.substring(0, idx);
+                return SHA_PATTERN.matcher(sha).matches() ? sha : null;
+            }
+        }
+        return null;
+    }
+
+    private static File resolvePath(File base, String path) {
+        File file = new File(path);
+        return file.isAbsolute() ? file : new File(base, path);
+    }
+
+    private static String readFirstLine(File file) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        List<String> lines = java.nio.file.Files.readAllLines(file.toPath(), UTF8);
+        return lines.isEmpty() ? null : lines.get(0).trim();
+    }
+}
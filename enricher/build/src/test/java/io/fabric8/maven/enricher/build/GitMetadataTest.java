@@ -0,0 +1,133 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.enricher.build;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class GitMetadataTest {
+
+    private static final String SHA1 = "0123456789abcdef0123456789abcdef01234567";
+    private static final String SHA2 = "89abcdef0123456789abcdef0123456789abcdef";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File project;
+    private File gitDir;
+
+    @Before
+    public void setup() throws IOException {
+        project = folder.newFolder("project");
+        gitDir = new File(project, ".git");
+        gitDir.mkdirs();
+    }
+
+    @Test
+    public void looseBranch() throws IOException {
+        write(gitDir, "HEAD", "ref: refs/heads/master");
+        write(gitDir, "refs/heads/master", SHA1);
+
+        File module = new File(project, "module/src");
+        module.mkdirs();
+        assertEquals(gitDir, GitMetadata.findDotGit(module).getAbsoluteFile());
+
+        GitMetadata metadata = GitMetadata.read(gitDir);
+        assertEquals("master", metadata.getBranch());
+        assertEquals(SHA1, metadata.getCommitId());
+    }
+
+    @Test
+    public void detachedHead() throws IOException {
+        write(gitDir, "HEAD", SHA1);
+
+        GitMetadata metadata = GitMetadata.read(gitDir);
+        assertEquals(SHA1, metadata.getBranch());
+        assertEquals(SHA1, metadata.getCommitId());
+    }
+
+    @Test
+    public void packedRefsOnly() throws IOException {
+        write(gitDir, "HEAD", "ref: refs/heads/feature/x");
+        write(gitDir, "packed-refs",
+              "# pack-refs with: peeled fully-peeled \n" +
+              SHA2 + " refs/heads/master\n" +
+              SHA1 + " refs/heads/feature/x\n" +
+              SHA2 + " refs/tags/v1.0\n" +
+              "^" + SHA1 + "\n");
+
+        GitMetadata metadata = GitMetadata.read(gitDir);
+        assertEquals("feature/x", metadata.getBranch());
+        assertEquals(SHA1, metadata.getCommitId());
+    }
+
+    @Test
+    public void looseRefWinsOverPackedRef() throws IOException {
+        write(gitDir, "HEAD", "ref: refs/heads/master");
+        write(gitDir, "refs/heads/master", SHA2);
+        write(gitDir, "packed-refs", SHA1 + " refs/heads/master\n");
+
+        assertEquals(SHA2, GitMetadata.read(gitDir).getCommitId());
+    }
+
+    @Test
+    public void worktree() throws IOException {
+        // Main repository holds refs and packed-refs, the worktree's git dir only its HEAD
+        write(gitDir, "packed-refs", SHA1 + " refs/heads/wt-branch\n");
+        File worktreeGitDir = new File(gitDir, "worktrees/wt");
+        write(worktreeGitDir, "HEAD", "ref: refs/heads/wt-branch");
+        write(worktreeGitDir, "commondir", "../..");
+
+        File worktree = folder.newFolder("worktree");
+        File dotGit = write(worktree, ".git", "gitdir: " + worktreeGitDir.getAbsolutePath());
+        assertEquals(dotGit, GitMetadata.findDotGit(worktree).getAbsoluteFile());
+
+        GitMetadata metadata = GitMetadata.read(dotGit);
+        assertEquals("wt-branch", metadata.getBranch());
+        assertEquals(SHA1, metadata.getCommitId());
+    }
+
+    @Test
+    public void unbornBranch() throws IOException {
+        write(gitDir, "HEAD", "ref: refs/heads/master");
+
+        // Let the caller fall back to JGit
+        assertNull(GitMetadata.read(gitDir));
+    }
+
+    @Test
+    public void locatedByEnvironment() {
+        assertFalse(GitMetadata.isLocatedByEnvironment(Collections.<String, String>emptyMap()));
+        assertTrue(GitMetadata.isLocatedByEnvironment(Collections.singletonMap("GIT_DIR", "/tmp/repo.git")));
+        assertTrue(GitMetadata.isLocatedByEnvironment(Collections.singletonMap("GIT_COMMON_DIR", "/tmp/repo.git")));
+    }
+
+    private File write(File dir, String path, String content) throws IOException {
+        File file = new File(dir, path);
+        file.getParentFile().mkdirs();
+        java.nio.file.Files.write(file.toPath(), (content + "\n").getBytes("UTF-8"));
+        return file;
+    }
+}
@@ -24,14 +24,25 @@ import io.fabric8.kubernetes.api.model.KubernetesListBuilder;
 import io.fabric8.maven.core.util.Configs;
 import io.fabric8.maven.enricher.api.BaseEnricher;
 import io.fabric8.maven.enricher.api.EnricherContext;
+import io.fabric8.maven.enricher.api.PrefetchingEnricher;
 import org.apache.maven.artifact.Artifact;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URL;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 /**
  * Enricher for embedding dependency descriptors to single package.
@@ -39,18 +50,44 @@ import java.util.Set;
  * @author jimmidyson
  * @since 14/07/16
  */
-public class DependencyEnricher extends BaseEnricher {
+public class DependencyEnricher extends BaseEnricher implements PrefetchingEnricher {
 
   // Available configuration keys
   private enum Config implements Configs.Key {
 
-    includeTransitive {{ d = "true"; }};
+    includeTransitive {{ d = "true"; }},
+    conflictPolicy    {{ d = "first"; }},
+    // Defaults to MANIFEST_INDEX_FILE within the build directory. Can point to a shared location
+    // (like ~/.fabric8/dependency-manifest-index) so that the index survives "mvn clean" and is
+    // used by all projects, since jars are indexed by absolute path.
+    manifestIndex;
 
     public String def() { return d; } protected String d;
   }
 
-  private static String DEPENDENCY_KUBERNETES_YAML = "/META-INF/fabric8/kubernetes.yml";
-  private Set<File> dependencyArtifacts = new HashSet<>();
+  // How to handle different resources with the same kind, namespace and name from different dependencies
+  enum ConflictPolicy {
+    // keep the resource found first
+    first,
+    // the resource found last wins
+    last,
+    // fail the build
+    fail
+  }
+
+  private static String DEPENDENCY_KUBERNETES_YAML = "META-INF/fabric8/kubernetes.yml";
+
+  // Index file relative to the build directory
+  private static final String MANIFEST_INDEX_FILE = "fabric8/dependency-manifest-index";
+
+  private static final ObjectMapper YAML_MAPPER = new ObjectMapper(new YAMLFactory());
+
+  private Set<File> dependencyArtifacts = new LinkedHashSet<>();
+
+  private ManifestIndex manifestIndex;
+
+  // Manifests read in the background, if prefetched
+  private Map<File, Future<List<HasMetadata>>> manifests;
 
   public DependencyEnricher(EnricherContext buildContext) {
     super(buildContext, "dependency");
@@ -59,24 +96,120 @@ public class DependencyEnricher extends BaseEnricher {
         buildContext.getProject().getArtifacts() : buildContext.getProject().getDependencyArtifacts();
 
     for (Artifact artifact : artifacts) {
-      if (Artifact.SCOPE_COMPILE.equals(artifact.getScope()) && "jar".equals(artifact.getType())) {
+      if (Artifact.SCOPE_COMPILE.equals(artifact.getScope()) && "jar".equals(artifact.getType()) &&
+          artifact.getFile() != null) {
         dependencyArtifacts.add(artifact.getFile());
       }
     }
   }
 
+  @Override
+  public List<Future<?>> prefetch(ExecutorService executor) {
+    if (dependencyArtifacts.isEmpty()) {
+      return Collections.emptyList();
+    }
+    final ManifestIndex index = getManifestIndex();
+    manifests = new LinkedHashMap<>();
+    for (final File artifact : dependencyArtifacts) {
+      manifests.put(artifact, executor.submit(new Callable<List<HasMetadata>>() {
+        @Override
+        public List<HasMetadata> call() {
+          return readManifestOrSkip(artifact, index);
+        }
+      }));
+    }
+    return new ArrayList<Future<?>>(manifests.values());
+  }
+
   @Override
   public void adapt(KubernetesListBuilder builder) {
+    if (dependencyArtifacts.isEmpty()) {
+      return;
+    }
+    ManifestIndex index = getManifestIndex();
+    ManifestMerger merger = new ManifestMerger(getConflictPolicy(), getLog());
+    merger.addProjectItems(builder.getItems());
     for (File artifact : dependencyArtifacts) {
-      try {
-        URL url = new URL("jar:" + artifact.toURI().toURL() + "!" + DEPENDENCY_KUBERNETES_YAML);
-        InputStream is = url.openStream();
-        KubernetesList resources = new ObjectMapper(new YAMLFactory()).readValue(is, KubernetesList.class);
-        builder.addToItems(resources.getItems().toArray(new HasMetadata[0]));
-      } catch (IOException e) {
-        getLog().debug("Skipping " + artifact.toString() + ": " + e);
+      List<HasMetadata> items = manifests != null ?
+          join(manifests.get(artifact)) : readManifestOrSkip(artifact, index);
+      for (HasMetadata item : items) {
+        merger.add(item, artifact);
       }
     }
+    List<HasMetadata> items = merger.getItems();
+    if (!items.isEmpty()) {
+      builder.addToItems(items.toArray(new HasMetadata[items.size()]));
+    }
+    try {
+      index.store(getManifestIndexFile());
+    } catch (IOException e) {
+      getLog().warn("Cannot store index of dependency manifests: " + e);
+    }
+  }
+
+  private ConflictPolicy getConflictPolicy() {
+    String policy = getConfig(Config.conflictPolicy);
+    try {
+      return ConflictPolicy.valueOf(policy.trim().toLowerCase());
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(
+          String.format("Invalid conflictPolicy '%s', must be one of %s", policy, Arrays.toString(ConflictPolicy.values())), e);
+    }
+  }
+
+  private List<HasMetadata> readManifestOrSkip(File artifact, ManifestIndex index) {
+    try {
+      return readManifest(artifact, index);
+    } catch (IOException e) {
+      getLog().debug("Skipping " + artifact.toString() + ": " + e);
+      return Collections.emptyList();
+    }
+  }
+
+  // Jars without a manifest which haven't changed since the last time are not opened at all
+  static List<HasMetadata> readManifest(File artifact, ManifestIndex index) throws IOException {
+    if (Boolean.FALSE.equals(index.hasManifest(artifact))) {
+      return Collections.emptyList();
+    }
+    try (ZipFile zip = new ZipFile(artifact)) {
+      ZipEntry entry = zip.getEntry(DEPENDENCY_KUBERNETES_YAML);
+      index.put(artifact, entry != null);
+      if (entry == null) {
+        return Collections.emptyList();
+      }
+      try (InputStream is = zip.getInputStream(entry)) {
+        KubernetesList resources = YAML_MAPPER.readValue(is, KubernetesList.class);
+        return resources.getItems() != null ? resources.getItems() : Collections.<HasMetadata>emptyList();
+      }
+    }
+  }
+
+  // Shared by all modules of a build using the same index file, loaded only once per build
+  private synchronized ManifestIndex getManifestIndex() {
+    if (manifestIndex != null) {
+      return manifestIndex;
+    }
+    final File indexFile = getManifestIndexFile();
+    try {
+      manifestIndex = getContext().getReactorCache().get(ManifestIndex.class.getName() + ":" + indexFile.getAbsolutePath(),
+                                                         new Callable<ManifestIndex>() {
+        @Override
+        public ManifestIndex call() {
+          ManifestIndex index = new ManifestIndex();
+          index.load(indexFile);
+          return index;
+        }
+      });
+    } catch (IOException e) {
+      // Can't happen since loading the index ignores I/O errors
+      throw new IllegalStateException("Cannot create manifest index: " + e, e);
+    }
+    return manifestIndex;
+  }
+
+  private File getManifestIndexFile() {
+    String file = getConfig(Config.manifestIndex);
+    return file != null ? new File(file) : new File(getProject().getBuild().getDirectory(), MANIFEST_INDEX_FILE);
   }
 
   protected boolean isIncludeTransitive() {
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.enricher.dependency;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers for each dependency jar, identified by path, size and modification time, whether it contains
+ * a dependency manifest. This way jars without a manifest don't need to be opened again as long as they
+ * don't change. The index can be stored in and loaded from a file.
+ */
+class ManifestIndex {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private volatile boolean dirty;
+
+    /**
+     * Check whether a jar has a manifest
+     *
+     * @param jar jar to check
+     * @return whether the jar contains a manifest or null if the jar is unknown or has changed since it was indexed
+     */
+    Boolean hasManifest(File jar) {
+        Entry entry = entries.get(jar.getAbsolutePath());
+        return entry != null && entry.matches(jar) ? entry.hasManifest : null;
+    }
+
+    void put(File jar, boolean hasManifest) {
+        entries.put(jar.getAbsolutePath(), new Entry(jar.length(), jar.lastModified(), hasManifest));
+        dirty = true;
+    }
+
+    /**
+     * Add all entries from an index file. Entries already known are not overwritten.
+     * Broken index files are ignored.
+     *
+     * @param file file to read
+     */
+    void load(File file) {
+        if (!file.isFile()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // Format: <size> <mtime> <hasManifest> <path>
+                String[] parts = line.split(" ", 4);
+                if (parts.length == 4 && !entries.containsKey(parts[3])) {
+                    entries.put(parts[3], new Entry(Long.parseLong(parts[0]), Long.parseLong(parts[1]),
+                                                    Boolean.parseBoolean(parts[2])));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Index will be recreated
+        }
+    }
+
+    /**
+     * Store the index if it has been changed since it has been loaded or stored the last time.
+     * Entries written meanwhile by other builds are kept. The file is replaced atomically so that
+     * concurrent readers never see a partially written index.
+     *
+     * @param file file to write to
+     */
+    synchronized void store(File file) throws IOException {
+        if (!dirty) {
+            return;
+        }
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Cannot create directory " + dir);
+        }
+        load(file);
+        // Reset before writing so that entries added meanwhile mark the index as changed again
+        dirty = false;
+        File tmp = File.createTempFile(file.getName(), ".tmp", dir);
+        boolean stored = false;
+        try {
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tmp), UTF8))) {
+                for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                    Entry entry = e.getValue();
+                    writer.write(entry.size + " " + entry.lastModified + " " + entry.hasManifest + " " + e.getKey() + "\n");
+                }
+            }
+            try {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            stored = true;
+        } finally {
+            if (!stored) {
+                dirty = true;
+            }
+            Files.deleteIfExists(tmp.toPath());
+        }
+    }
+
+    private static class Entry {
+        private final long size;
+        private final long lastModified;
+        private final boolean hasManifest;
+
+        private Entry(long size, long lastModified, boolean hasManifest) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hasManifest = hasManifest;
+        }
+
+        private boolean matches(File jar) {
+            return size == jar.length() && lastModified == jar.lastModified();
+        }
+    }
+}
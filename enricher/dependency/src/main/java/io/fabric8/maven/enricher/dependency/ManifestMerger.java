@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.enricher.dependency;
+
+import java.io.File;
+import java.util.*;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.maven.enricher.dependency.DependencyEnricher.ConflictPolicy;
+
+/**
+ * Merges the resources found in dependency manifests. Resources are identified by kind, namespace and name,
+ * each is added only once. Resources defined by the project itself always take precedence, conflicting
+ * definitions from different dependencies are resolved according to a {@link ConflictPolicy}.
+ * Resources without a name are passed through unchanged.
+ */
+class ManifestMerger {
+
+    private final ConflictPolicy policy;
+    private final Logger log;
+
+    // Keys of the project's own resources
+    private final Map<String, HasMetadata> projectItems = new HashMap<>();
+
+    // Items by merge key and where they come from
+    private final Map<String, HasMetadata> merged = new LinkedHashMap<>();
+    private final Map<String, File> sources = new HashMap<>();
+
+    private final List<HasMetadata> unnamed = new ArrayList<>();
+
+    ManifestMerger(ConflictPolicy policy, Logger log) {
+        this.policy = policy;
+        this.log = log;
+    }
+
+    /**
+     * Register the resources of the project, which shadow resources with the same key from dependencies
+     *
+     * @param items the project's resources
+     */
+    void addProjectItems(List<HasMetadata> items) {
+        for (HasMetadata item : items) {
+            String key = getMergeKey(item);
+            if (key != null) {
+                projectItems.put(key, item);
+            }
+        }
+    }
+
+    /**
+     * Add a resource from a dependency
+     *
+     * @param item resource to add
+     * @param source dependency jar where the resource is defined
+     * @throws IllegalStateException if the resource conflicts with another one and the policy is
+     *         {@link ConflictPolicy#fail}
+     */
+    void add(HasMetadata item, File source) {
+        String key = getMergeKey(item);
+        if (key == null) {
+            unnamed.add(item);
+            return;
+        }
+        HasMetadata projectItem = projectItems.get(key);
+        if (projectItem != null) {
+            if (projectItem.equals(item)) {
+                log.debug("Skipping %s from %s as it is defined by the project itself", key, source);
+            } else {
+                log.warn("Ignoring %s from %s as it is defined differently by the project itself", key, source);
+            }
+            return;
+        }
+        HasMetadata existing = merged.get(key);
+        if (existing == null) {
+            merged.put(key, item);
+            sources.put(key, source);
+        } else if (existing.equals(item)) {
+            log.debug("Skipping %s from %s as it is the same as the one from %s", key, source, sources.get(key));
+        } else {
+            switch (policy) {
+                case fail:
+                    throw new IllegalStateException(
+                        String.format("Conflicting definitions of %s in %s and %s", key, sources.get(key), source));
+                case last:
+                    log.warn("Using %s from %s instead of the conflicting one from %s", key, source, sources.get(key));
+                    merged.put(key, item);
+                    sources.put(key, source);
+                    break;
+                default:
+                    log.warn("Ignoring %s from %s, using the conflicting one from %s", key, source, sources.get(key));
+            }
+        }
+    }
+
+    /**
+     * @return merged resources from dependencies, named ones in the order they were found first followed by
+     *         the unnamed ones
+     */
+    List<HasMetadata> getItems() {
+        List<HasMetadata> ret = new ArrayList<>(merged.values());
+        ret.addAll(unnamed);
+        return ret;
+    }
+
+    // Returns null for resources without name
+    static String getMergeKey(HasMetadata item) {
+        ObjectMeta metadata = item.getMetadata();
+        if (metadata == null || metadata.getName() == null) {
+            return null;
+        }
+        String namespace = metadata.getNamespace();
+        return item.getKind() + "/" + (namespace != null ? namespace + "/" : "") + metadata.getName();
+    }
+}
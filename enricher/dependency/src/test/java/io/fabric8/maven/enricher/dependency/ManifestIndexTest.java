@@ -0,0 +1,150 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.enricher.dependency;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class ManifestIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void storeAndLoad() throws IOException {
+        File jar = createJar("plain.jar", "META-INF/MANIFEST.MF");
+        File withManifest = createJar("manifest.jar", "META-INF/fabric8/kubernetes.yml");
+        File indexFile = new File(folder.getRoot(), "index/manifest-index");
+
+        ManifestIndex index = new ManifestIndex();
+        index.put(jar, false);
+        index.put(withManifest, true);
+        index.store(indexFile);
+        assertTrue(indexFile.isFile());
+
+        ManifestIndex loaded = new ManifestIndex();
+        loaded.load(indexFile);
+        assertEquals(Boolean.FALSE, loaded.hasManifest(jar));
+        assertEquals(Boolean.TRUE, loaded.hasManifest(withManifest));
+        assertNull(loaded.hasManifest(new File(folder.getRoot(), "unknown.jar")));
+
+        // No temporary files left behind
+        assertEquals(Arrays.asList("manifest-index"), Arrays.asList(indexFile.getParentFile().list()));
+    }
+
+    @Test
+    public void staleEntry() throws IOException {
+        File jar = createJar("plain.jar", "META-INF/MANIFEST.MF");
+        ManifestIndex index = new ManifestIndex();
+        index.put(jar, false);
+        assertEquals(Boolean.FALSE, index.hasManifest(jar));
+
+        assertTrue(jar.setLastModified(jar.lastModified() - 10000));
+        assertNull(index.hasManifest(jar));
+    }
+
+    @Test
+    public void storeOnlyWhenChanged() throws IOException {
+        File jar = createJar("plain.jar", "META-INF/MANIFEST.MF");
+        File indexFile = folder.newFile("manifest-index");
+
+        ManifestIndex index = new ManifestIndex();
+        index.load(indexFile);
+        index.store(indexFile);
+        assertEquals(0, indexFile.length());
+
+        index.put(jar, false);
+        index.store(indexFile);
+        long length = indexFile.length();
+        assertTrue(length > 0);
+
+        // Second store without changes, e.g. from another module, doesn't write
+        assertTrue(indexFile.delete());
+        index.store(indexFile);
+        assertFalse(indexFile.exists());
+    }
+
+    @Test
+    public void storeKeepsEntriesOfOthers() throws IOException {
+        File jar1 = createJar("one.jar", "META-INF/MANIFEST.MF");
+        File jar2 = createJar("two.jar", "META-INF/MANIFEST.MF");
+        File indexFile = new File(folder.getRoot(), "manifest-index");
+
+        ManifestIndex first = new ManifestIndex();
+        ManifestIndex second = new ManifestIndex();
+        first.put(jar1, false);
+        second.put(jar2, false);
+        first.store(indexFile);
+        second.store(indexFile);
+
+        ManifestIndex loaded = new ManifestIndex();
+        loaded.load(indexFile);
+        assertEquals(Boolean.FALSE, loaded.hasManifest(jar1));
+        assertEquals(Boolean.FALSE, loaded.hasManifest(jar2));
+    }
+
+    @Test
+    public void brokenIndexIgnored() throws IOException {
+        File indexFile = folder.newFile("manifest-index");
+        Files.write(indexFile.toPath(), "no index\n".getBytes("UTF-8"));
+        ManifestIndex index = new ManifestIndex();
+        index.load(indexFile);
+        assertNull(index.hasManifest(indexFile));
+    }
+
+    @Test
+    public void jarWithoutManifestNotReopened() throws IOException {
+        File jar = createJar("plain.jar", "META-INF/MANIFEST.MF");
+        ManifestIndex index = new ManifestIndex();
+
+        assertTrue(DependencyEnricher.readManifest(jar, index).isEmpty());
+        assertEquals(Boolean.FALSE, index.hasManifest(jar));
+
+        // Replace the content with something which isn't a jar at all, but keep size and timestamp.
+        // Opening it again would fail.
+        long lastModified = jar.lastModified();
+        byte[] garbage = new byte[(int) jar.length()];
+        Files.write(jar.toPath(), garbage);
+        assertTrue(jar.setLastModified(lastModified));
+
+        List<HasMetadata> items = DependencyEnricher.readManifest(jar, index);
+        assertTrue(items.isEmpty());
+    }
+
+    private File createJar(String name, String entry) throws IOException {
+        File jar = folder.newFile(name);
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(jar))) {
+            zip.putNextEntry(new ZipEntry(entry));
+            zip.write("test".getBytes("UTF-8"));
+            zip.closeEntry();
+        }
+        return jar;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.enricher.dependency;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.maven.enricher.dependency.DependencyEnricher.ConflictPolicy;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ManifestMergerTest {
+
+    private static final File JAR_A = new File("a.jar");
+    private static final File JAR_B = new File("b.jar");
+
+    private RecordingLogger log = new RecordingLogger();
+
+    @Test
+    public void identicalDuplicates() {
+        ManifestMerger merger = new ManifestMerger(ConflictPolicy.fail, log);
+        merger.add(service("svc", "ClusterIP"), JAR_A);
+        merger.add(service("svc", "ClusterIP"), JAR_B);
+
+        assertEquals(Collections.<HasMetadata>singletonList(service("svc", "ClusterIP")), merger.getItems());
+        assertTrue(log.warnings.isEmpty());
+    }
+
+    @Test
+    public void firstWins() {
+        ManifestMerger merger = new ManifestMerger(ConflictPolicy.first, log);
+        merger.add(service("svc", "ClusterIP"), JAR_A);
+        merger.add(service("svc", "NodePort"), JAR_B);
+
+        assertEquals(Collections.<HasMetadata>singletonList(service("svc", "ClusterIP")), merger.getItems());
+        assertEquals(1, log.warnings.size());
+    }
+
+    @Test
+    public void lastWins() {
+        ManifestMerger merger = new ManifestMerger(ConflictPolicy.last, log);
+        merger.add(service("svc", "ClusterIP"), JAR_A);
+        merger.add(service("other", "ClusterIP"), JAR_A);
+        merger.add(service("svc", "NodePort"), JAR_B);
+
+        // Position of the first occurrence is kept
+        assertEquals(Arrays.<HasMetadata>asList(service("svc", "NodePort"), service("other", "ClusterIP")),
+                     merger.getItems());
+        assertEquals(1, log.warnings.size());
+    }
+
+    @Test
+    public void failOnConflict() {
+        ManifestMerger merger = new ManifestMerger(ConflictPolicy.fail, log);
+        merger.add(service("svc", "ClusterIP"), JAR_A);
+        try {
+            merger.add(service("svc", "NodePort"), JAR_B);
+            fail("Conflict not detected");
+        } catch (IllegalStateException exp) {
+            assertTrue(exp.getMessage().contains("Service/svc"));
+            assertTrue(exp.getMessage().contains("a.jar"));
+            assertTrue(exp.getMessage().contains("b.jar"));
+        }
+    }
+
+    @Test
+    public void projectTakesPrecedence() {
+        ManifestMerger merger = new ManifestMerger(ConflictPolicy.fail, log);
+        merger.addProjectItems(Arrays.<HasMetadata>asList(service("svc", "LoadBalancer"), service("same", "ClusterIP")));
+        merger.add(service("svc", "ClusterIP"), JAR_A);
+        merger.add(service("same", "ClusterIP"), JAR_A);
+
+        assertTrue(merger.getItems().isEmpty());
+        // Only the differing definition is worth a warning
+        assertEquals(1, log.warnings.size());
+        assertTrue(log.warnings.get(0).contains("Service/svc"));
+    }
+
+    @Test
+    public void namespaceIsPartOfKey() {
+        ManifestMerger merger = new ManifestMerger(ConflictPolicy.fail, log);
+        Service inNamespace = new ServiceBuilder(service("svc", "NodePort"))
+            .editMetadata().withNamespace("ns").endMetadata().build();
+        merger.add(service("svc", "ClusterIP"), JAR_A);
+        merger.add(inNamespace, JAR_B);
+
+        assertEquals(2, merger.getItems().size());
+        assertEquals("Service/ns/svc", ManifestMerger.getMergeKey(inNamespace));
+    }
+
+    @Test
+    public void unnamedPassedThrough() {
+        ManifestMerger merger = new ManifestMerger(ConflictPolicy.fail, log);
+        Service unnamed = new ServiceBuilder().withNewSpec().withType("ClusterIP").endSpec().build();
+        merger.add(service("svc", "ClusterIP"), JAR_A);
+        merger.add(unnamed, JAR_A);
+        merger.add(unnamed, JAR_B);
+
+        assertEquals(Arrays.<HasMetadata>asList(service("svc", "ClusterIP"), unnamed, unnamed), merger.getItems());
+        assertNull(ManifestMerger.getMergeKey(unnamed));
+    }
+
+    private Service service(String name, String type) {
+        return new ServiceBuilder()
+            .withNewMetadata().withName(name).endMetadata()
+            .withNewSpec().withType(type).endSpec()
+            .build();
+    }
+
+    private static class RecordingLogger implements Logger {
+
+        private final List<String> warnings = new ArrayList<>();
+
+        @Override
+        public void debug(String message, Object... objects) {
+        }
+
+        @Override
+        public void info(String message, Object... objects) {
+        }
+
+        @Override
+        public void verbose(String message, Object... objects) {
+        }
+
+        @Override
+        public void warn(String message, Object... objects) {
+            warnings.add(String.format(message, objects));
+        }
+
+        @Override
+        public void error(String message, Object... objects) {
+        }
+
+        @Override
+        public String errorMessage(String message) {
+            return message;
+        }
+
+        @Override
+        public boolean isDebugEnabled() {
+            return false;
+        }
+
+        @Override
+        public void progressStart() {
+        }
+
+        @Override
+        public void progressUpdate(String layerId, String status, String progressMessage) {
+        }
+
+        @Override
+        public void progressFinished() {
+        }
+    }
+}
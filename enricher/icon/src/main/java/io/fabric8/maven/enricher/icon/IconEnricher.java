@@ -18,10 +18,12 @@ package io.fabric8.maven.enricher.icon;
 
 import io.fabric8.kubernetes.api.Annotations;
 import io.fabric8.maven.core.util.Configs;
+import io.fabric8.maven.core.util.Fingerprint;
 import io.fabric8.maven.core.util.MavenUtil;
 import io.fabric8.maven.enricher.api.BaseEnricher;
 import io.fabric8.maven.enricher.api.EnricherContext;
 import io.fabric8.maven.enricher.api.Kind;
+import io.fabric8.maven.enricher.api.PrefetchingEnricher;
 import io.fabric8.utils.Base64Encoder;
 import io.fabric8.utils.Files;
 import io.fabric8.utils.Strings;
@@ -29,18 +31,22 @@ import io.fabric8.utils.URLUtils;
 import org.apache.maven.model.Scm;
 import org.apache.maven.project.MavenProject;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import static io.fabric8.maven.core.util.MavenUtil.hasClass;
 import static io.fabric8.maven.core.util.MavenUtil.hasDependency;
 import static io.fabric8.maven.core.util.MavenUtil.hasPlugin;
-import static io.fabric8.utils.Files.guessMediaType;
 
 /**
  * Enricher for adding icons to descriptors
@@ -48,19 +54,25 @@ import static io.fabric8.utils.Files.guessMediaType;
  * @author roland
  * @since 01/05/16
  */
-public class IconEnricher extends BaseEnricher {
+public class IconEnricher extends BaseEnricher implements PrefetchingEnricher {
 
     private static String[] ICON_EXTENSIONS = new String[]{".svg", ".png", ".gif", ".jpg", ".jpeg"};
 
-    private File templateTempDir;
+    // Directory below the build directory holding the URLs already calculated for icons
+    private static final String ICON_CACHE_DIR = "fabric8/icon-cache";
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
     private File appConfigDir;
     private String iconRef;
     private String iconBranch;
 
+    // Icon URL looked up in the background, if prefetched
+    private Future<String> iconUrl;
+
     // Available configuration keys
     private enum Config implements Configs.Key {
 
-        templateTempDir,
         sourceDir,
         ref,
         maximumDataUrlSizeK   {{ d = "2"; }},
@@ -75,16 +87,26 @@ public class IconEnricher extends BaseEnricher {
         super(buildContext, "icon");
 
         String baseDir = getProject().getBasedir().getAbsolutePath();
-        templateTempDir = new File(getConfig(Config.templateTempDir, baseDir + "/target/fabric8/template-workdir"));
         appConfigDir = new File(getConfig(Config.sourceDir, baseDir + "/src/main/fabric8"));
         iconRef = getConfig(Config.ref);
     }
 
+    @Override
+    public List<Future<?>> prefetch(ExecutorService executor) {
+        iconUrl = executor.submit(new Callable<String>() {
+            @Override
+            public String call() {
+                return getIconUrl();
+            }
+        });
+        return Collections.<Future<?>>singletonList(iconUrl);
+    }
+
     @Override
     public Map<String, String> getAnnotations(Kind kind) {
         if (kind.isDeployOrReplicaKind() || kind.isService()) {
-            String iconUrl = getIconUrl();
-            return iconUrl != null ? Collections.singletonMap(Annotations.Builds.ICON_URL,iconUrl) : null;
+            String url = this.iconUrl != null ? join(this.iconUrl) : getIconUrl();
+            return url != null ? Collections.singletonMap(Annotations.Builds.ICON_URL, url) : null;
         } else {
             return null;
         }
@@ -96,25 +118,7 @@ public class IconEnricher extends BaseEnricher {
         String answer = getConfig(Config.url);
         if (Strings.isNullOrBlank(answer)) {
             try {
-                if (templateTempDir != null) {
-                    templateTempDir.mkdirs();
-                    File iconFile = copyIconToFolder(iconRef, templateTempDir);
-                    if (iconFile == null) {
-                        copyAppConfigFiles(templateTempDir, appConfigDir);
-
-                        // lets find the icon file...
-                        for (String ext : ICON_EXTENSIONS) {
-                            File file = new File(templateTempDir, "icon" + ext);
-                            if (file.exists() && file.isFile()) {
-                                iconFile = file;
-                                break;
-                            }
-                        }
-                    }
-                    if (iconFile != null) {
-                        answer = convertIconFileToURL(iconFile);
-                    }
-                }
+                answer = resolveIcon();
             } catch (Exception e) {
                 log.warn("Failed to load icon file: " + e, e);
             }
@@ -145,6 +149,76 @@ public class IconEnricher extends BaseEnricher {
         return answer;
     }
 
+    // Lookup the icon given by the icon reference or the icon in the source dir and convert
+    // it to an URL. Results are cached by the icon's content.
+    private String resolveIcon() throws IOException {
+        String iconName = null;
+        byte[] iconData = null;
+        File iconSourceFile = null;
+
+        if (Strings.isNotBlank(iconRef)) {
+            iconName = findIconRefResource(iconRef);
+            if (iconName != null) {
+                try (InputStream in = loadPluginResource(iconName)) {
+                    iconData = readBytes(in);
+                }
+                log.debug("Using icon from icon reference " + iconRef);
+            }
+        }
+        if (iconData == null) {
+            iconSourceFile = findIconFile(appConfigDir);
+            if (iconSourceFile == null) {
+                return null;
+            }
+            iconName = iconSourceFile.getName();
+            iconData = java.nio.file.Files.readAllBytes(iconSourceFile.toPath());
+        }
+
+        final String name = iconName;
+        final byte[] data = iconData;
+        final File sourceFile = iconSourceFile;
+        final String key = createIconCacheKey(name, data, sourceFile);
+        final File cacheFile = new File(getProject().getBuild().getDirectory(), ICON_CACHE_DIR + "/" + key);
+        return getContext().getReactorCache().get("icon:" + key, new Callable<String>() {
+            @Override
+            public String call() throws IOException {
+                if (cacheFile.isFile()) {
+                    return new String(java.nio.file.Files.readAllBytes(cacheFile.toPath()), UTF8).trim();
+                }
+                String url = convertIconToURL(name, data, sourceFile);
+                if (url != null) {
+                    File dir = cacheFile.getParentFile();
+                    if (!dir.exists() && !dir.mkdirs()) {
+                        throw new IOException("Cannot create icon cache directory " + dir);
+                    }
+                    Files.writeToFile(cacheFile, url, UTF8);
+                }
+                return url;
+            }
+        });
+    }
+
+    // Everything which influences the URL calculated for an icon
+    private String createIconCacheKey(String name, byte[] data, File sourceFile) throws IOException {
+        Scm scm = getProject().getScm();
+        File basedir = getProject().getBasedir();
+        File rootProjectFolder = getRootProjectFolder();
+        return new Fingerprint()
+            .add("name", name)
+            .add("iconRef", iconRef)
+            .add("data", data)
+            .add("source", sourceFile != null ? sourceFile.getAbsolutePath() : null)
+            .add("basedir", basedir != null ? basedir.getAbsolutePath() : null)
+            .add("rootProjectFolder", rootProjectFolder != null ? rootProjectFolder.getAbsolutePath() : null)
+            .add("relativeParentPath", rootProjectFolder != null && basedir != null ?
+                Files.getRelativePath(rootProjectFolder, basedir) : null)
+            .add("maximumDataUrlSizeK", getConfig(Config.maximumDataUrlSizeK))
+            .add("urlPrefix", getConfig(Config.urlPrefix))
+            .add("branch", getConfig(Config.branch))
+            .add("scm", scm != null ? scm.getUrl() : null)
+            .asHex();
+    }
+
     /**
      * Lets use the project and its classpath to try figure out what default icon to use
      *
@@ -178,51 +252,38 @@ public class IconEnricher extends BaseEnricher {
         return null;
     }
 
-    private File copyIconToFolder(String iconRef, File appBuildDir) throws IOException {
-        if (Strings.isNotBlank(iconRef)) {
-            File[] icons = appBuildDir.listFiles(new FilenameFilter() {
-                @Override
-                public boolean accept(File dir, String name) {
-                    if (name == null) {
-                        return false;
-                    }
-                    String lower = name.toLowerCase();
-                    if (lower.startsWith("icon.")) {
-                        for (String ext : ICON_EXTENSIONS) {
-                            if (lower.endsWith(ext)) {
-                                return true;
-                            }
-                        }
-                    }
-                    return false;
-                }
-            });
-            if (icons == null || icons.length == 0) {
-                // lets copy the iconRef
-                InputStream in = loadPluginResource(iconRef);
-                if (in == null) {
-                    // maybe it dont have extension so try to find it
-                    for (String ext : ICON_EXTENSIONS) {
-                        String name = iconRef + ext;
-                        in = loadPluginResource(name);
-                        if (in != null) {
-                            iconRef = name;
-                            break;
-                        }
-                    }
-                }
-                if (in != null) {
-                    String fileName = "icon." + Files.getFileExtension(iconRef);
-                    File outFile = new File(appBuildDir, fileName);
-                    Files.copy(in, new FileOutputStream(outFile));
-                    log.info("Generated icon file " + outFile + " from icon reference: " + iconRef);
-                    return outFile;
-                }
+    // Find the first file "icon.<ext>" for the known icon extensions
+    private File findIconFile(File dir) {
+        for (String ext : ICON_EXTENSIONS) {
+            File file = new File(dir, "icon" + ext);
+            if (file.isFile()) {
+                return file;
+            }
+        }
+        return null;
+    }
+
+    // Resource name for the icon reference, also trying it with the known icon extensions
+    private String findIconRefResource(String iconRef) throws IOException {
+        for (String name : getIconRefCandidates(iconRef)) {
+            InputStream in = loadPluginResource(name);
+            if (in != null) {
+                in.close();
+                return name;
             }
         }
         return null;
     }
 
+    private List<String> getIconRefCandidates(String iconRef) {
+        List<String> ret = new ArrayList<>();
+        ret.add(iconRef);
+        for (String ext : ICON_EXTENSIONS) {
+            ret.add(iconRef + ext);
+        }
+        return ret;
+    }
+
     private InputStream loadPluginResource(String iconRef) {
         InputStream answer = Thread.currentThread().getContextClassLoader().getResourceAsStream(iconRef);
         if (answer == null) {
@@ -234,41 +295,16 @@ public class IconEnricher extends BaseEnricher {
         return answer;
     }
 
-    /**
-     * Copies any local configuration files into the app directory
-     */
-    private void copyAppConfigFiles(File appBuildDir, File appConfigDir) throws IOException {
-        File[] files = appConfigDir.listFiles();
-        if (files != null) {
-            appBuildDir.mkdirs();
-            for (File file : files) {
-                File outFile = new File(appBuildDir, file.getName());
-                if (file.isDirectory()) {
-                    copyAppConfigFiles(outFile, file);
-                } else {
-                    Files.copy(file, outFile);
-                }
-            }
-        }
-    }
-
-
-    private String convertIconFileToURL(File iconFile) throws IOException {
-        long length = iconFile.length();
-
-        int sizeK = Math.round(length / 1024);
-
-        byte[] bytes = Files.readBytes(iconFile);
+    private String convertIconToURL(String iconName, byte[] bytes, File iconSourceFile) throws IOException {
         byte[] encoded = Base64Encoder.encode(bytes);
 
         int base64SizeK = Math.round(encoded.length / 1024);
 
         if (base64SizeK < Configs.asInt(getConfig(Config.maximumDataUrlSizeK))) {
-            String mimeType = guessMediaType(iconFile);
+            String mimeType = getIconMediaType(iconName);
             return "data:" + mimeType + ";charset=UTF-8;base64," + new String(encoded);
         } else {
-            File iconSourceFile = new File(appConfigDir, iconFile.getName());
-            if (iconSourceFile.exists()) {
+            if (iconSourceFile != null) {
                 File rootProjectFolder = getRootProjectFolder();
                 if (rootProjectFolder != null) {
                     String relativePath = Files.getRelativePath(rootProjectFolder, iconSourceFile);
@@ -305,13 +341,38 @@ public class IconEnricher extends BaseEnricher {
                 if (embeddedIcon != null) {
                     return embeddedIcon;
                 } else {
-                    log.warn("Cannot find url for icon to use " + getIconUrl());
+                    log.warn("Cannot find url for icon to use " + iconRef);
                 }
             }
         }
         return null;
     }
 
+    private static byte[] readBytes(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private String getIconMediaType(String iconName) {
+        String ext = Files.getFileExtension(iconName);
+        if (ext != null) {
+            ext = ext.toLowerCase();
+            if ("svg".equals(ext)) {
+                return "image/svg+xml";
+            } else if ("png".equals(ext) || "gif".equals(ext)) {
+                return "image/" + ext;
+            } else if ("jpg".equals(ext) || "jpeg".equals(ext)) {
+                return "image/jpeg";
+            }
+        }
+        return "application/octet-stream";
+    }
+
     /**
      * Returns the root project folder
      */
@@ -16,6 +16,8 @@
 package io.fabric8.maven.enricher.links;
 
 import io.fabric8.kubernetes.api.Annotations;
+import io.fabric8.maven.core.util.LayeredProperties;
+import io.fabric8.maven.core.util.PropertyTemplate;
 import io.fabric8.maven.enricher.api.*;
 import io.fabric8.utils.Strings;
 import io.fabric8.utils.URLUtils;
@@ -26,23 +28,40 @@ import org.apache.maven.project.MavenProject;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.Properties;
-import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * Adds a link to the generated documentation for this microservice so we can link to the versioned docs in the
  * annotations
  */
-public class DocLinkEnricher extends AbstractLiveEnricher {
+public class DocLinkEnricher extends AbstractLiveEnricher implements ParallelSafeEnricher, PrefetchingEnricher {
+
+    // URL looked up in the background, if prefetched
+    private Future<String> documentationUrl;
+
     public DocLinkEnricher(EnricherContext buildContext) {
         super(buildContext, "docLink");
     }
 
+    @Override
+    public List<Future<?>> prefetch(ExecutorService executor) {
+        documentationUrl = executor.submit(new Callable<String>() {
+            @Override
+            public String call() {
+                return findDocumentationUrl();
+            }
+        });
+        return Collections.<Future<?>>singletonList(documentationUrl);
+    }
+
     @Override
     public Map<String, String> getAnnotations(Kind kind) {
         if (kind.isDeployOrReplicaKind()) {
-            String url = findDocumentationUrl();
+            String url = documentationUrl != null ? join(documentationUrl) : findDocumentationUrl();
             return url != null ? Collections.singletonMap(Annotations.Builds.DOCS_URL, url) : null;
         } else {
             return null;
@@ -59,7 +78,8 @@ public class DocLinkEnricher extends AbstractLiveEnricher {
                     // lets replace any properties...
                     MavenProject project = getProject();
                     if (project != null) {
-                        url = replaceProperties(url, project.getProperties());
+                        url = PropertyTemplate.interpolate(
+                            url, LayeredProperties.create(project.getProperties(), getContext().getConfig()));
                     }
 
                     // lets convert the internal dns name to a public name
@@ -105,20 +125,4 @@ public class DocLinkEnricher extends AbstractLiveEnricher {
         }
         return null;
     }
-
-    /**
-     * Replaces all text of the form <code>{foo}</code>$ with the value in the properties object
-     */
-    protected static String replaceProperties(String text, Properties properties) {
-        Set<Map.Entry<Object, Object>> entries = properties.entrySet();
-        for (Map.Entry<Object, Object> entry : entries) {
-            Object key = entry.getKey();
-            Object value = entry.getValue();
-            if (key != null && value != null) {
-                String pattern = "${" + key + "}";
-                text = Strings.replaceAllWithoutRegex(text, pattern, value.toString());
-            }
-        }
-        return text;
-    }
 }
@@ -20,6 +20,7 @@ import io.fabric8.maven.core.util.Configs;
 import io.fabric8.maven.enricher.api.BaseEnricher;
 import io.fabric8.maven.enricher.api.EnricherContext;
 import io.fabric8.maven.enricher.api.Kind;
+import io.fabric8.maven.enricher.api.ParallelSafeEnricher;
 import io.fabric8.utils.Strings;
 import io.fabric8.utils.URLUtils;
 import org.apache.maven.project.MavenProject;
@@ -31,7 +32,7 @@ import static io.fabric8.maven.core.util.MavenUtil.hasClass;
 
 /**
  */
-public class GrafanaLinkEnricher extends BaseEnricher {
+public class GrafanaLinkEnricher extends BaseEnricher implements ParallelSafeEnricher {
     public GrafanaLinkEnricher(EnricherContext buildContext) {
         super(buildContext, "grafanaLink");
     }
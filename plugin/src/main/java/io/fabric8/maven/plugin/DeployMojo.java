@@ -39,6 +39,7 @@ import io.fabric8.kubernetes.api.model.extensions.IngressSpec;
 import io.fabric8.kubernetes.client.*;
 import io.fabric8.kubernetes.internal.HasMetadataComparator;
 import io.fabric8.maven.core.access.ClusterAccess;
+import io.fabric8.maven.core.util.LayeredProperties;
 import io.fabric8.openshift.api.model.Route;
 import io.fabric8.openshift.api.model.RouteList;
 import io.fabric8.openshift.api.model.RouteSpec;
@@ -61,7 +62,6 @@ import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
-import java.util.Properties;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -422,12 +422,12 @@ public class DeployMojo extends AbstractFabric8Mojo {
         List<io.fabric8.openshift.api.model.Parameter> parameters = template.getParameters();
         MavenProject project = getProject();
         if (parameters != null && project != null) {
-            Properties properties = getProjectAndFabric8Properties(project);
+            LayeredProperties properties = getProjectAndFabric8Properties(project);
             boolean missingProperty = false;
             for (io.fabric8.openshift.api.model.Parameter parameter : parameters) {
                 String parameterName = parameter.getName();
                 String name = "fabric8.apply." + parameterName;
-                String propertyValue = properties.getProperty(name);
+                String propertyValue = properties.lookup(name);
                 if (propertyValue != null) {
                     getLog().info("Overriding template parameter " + name + " with value: " + propertyValue);
                     parameter.setValue(propertyValue);
@@ -437,17 +437,18 @@ public class DeployMojo extends AbstractFabric8Mojo {
                 }
             }
             if (missingProperty) {
-                getLog().debug("Current properties " + new TreeSet<>(properties.keySet()));
+                Set<Object> keys = new TreeSet<>(project.getProperties().keySet());
+                keys.addAll(System.getProperties().keySet());
+                getLog().debug("Current properties " + keys);
             }
         }
     }
 
-    protected Properties getProjectAndFabric8Properties(MavenProject project) {
-        Properties properties = project.getProperties();
-        properties.putAll(project.getProperties());
+    protected LayeredProperties getProjectAndFabric8Properties(MavenProject project) {
         // let system properties override so we can read from the command line
-        properties.putAll(System.getProperties());
-        return properties;
+        return new LayeredProperties()
+            .addSystemProperties()
+            .add(project.getProperties());
     }
 
     protected void createRoutes(Controller controller, Collection<HasMetadata> collection) {
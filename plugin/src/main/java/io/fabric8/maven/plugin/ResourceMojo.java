@@ -15,9 +15,15 @@
  */
 package io.fabric8.maven.plugin;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import io.fabric8.kubernetes.api.KubernetesHelper;
 import io.fabric8.kubernetes.api.model.*;
@@ -39,12 +45,14 @@ import io.fabric8.maven.plugin.generator.GeneratorManager;
 import io.fabric8.openshift.api.model.DeploymentConfigBuilder;
 import io.fabric8.openshift.api.model.DeploymentConfigFluent;
 import io.fabric8.utils.Strings;
+import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.*;
 import org.apache.maven.plugins.annotations.*;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.project.MavenProjectHelper;
-import org.apache.maven.shared.filtering.MavenFileFilter;
 import org.apache.maven.shared.filtering.MavenFilteringException;
+import org.apache.maven.shared.filtering.MavenReaderFilter;
+import org.codehaus.plexus.component.configurator.expression.ExpressionEvaluationException;
 
 import static io.fabric8.maven.core.util.ResourceFileType.json;
 import static io.fabric8.maven.core.util.ResourceFileType.yaml;
@@ -60,8 +68,32 @@ public class ResourceMojo extends AbstractFabric8Mojo {
     // THe key how we got the the docker maven plugin
     private static final String DOCKER_MAVEN_PLUGIN_KEY = "io.fabric8:docker-maven-plugin";
 
-    @Component(role = MavenFileFilter.class, hint = "default")
-    private MavenFileFilter mavenFileFilter;
+    // File within the work dir holding the fingerprint of the last generation's input
+    private static final String FINGERPRINT_FILE = "resource.fingerprint";
+
+    // Directory within the work dir holding parsed resource fragments
+    private static final String FRAGMENT_CACHE_DIR = "fragment-cache";
+
+    // Prefixes of properties from the command line which can change the generated resources
+    // ("fabri8.enricher" is the prefix EnricherConfig looks up)
+    private static final String[] FABRIC8_PROPERTY_PREFIXES = { "fabric8.", "fabri8." };
+
+    // File within the work dir holding the timing report
+    private static final String TIMINGS_FILE = "timings.json";
+
+    // Expressions as recognized by the default delimiters of maven filtering
+    private static final Pattern[] FILTER_EXPRESSION_PATTERNS = {
+        Pattern.compile("\\$\\{([^}]+)\\}"),
+        Pattern.compile("@([^@\\s]+)@")
+    };
+
+    private static final String FRAGMENT_ENCODING = "UTF-8";
+
+    @Component(role = MavenReaderFilter.class, hint = "default")
+    private MavenReaderFilter mavenReaderFilter;
+
+    @Parameter(defaultValue = "${mojoExecution}", readonly = true)
+    private MojoExecution mojoExecution;
 
     @Component
     private ImageConfigResolver imageConfigResolver;
@@ -142,6 +174,31 @@ public class ResourceMojo extends AbstractFabric8Mojo {
     @Parameter(property = "fabric8.artifactType", defaultValue = "yml")
     private String artifactType;
 
+    /**
+     * Whether to skip the regeneration of the resource descriptors when none of the
+     * inputs (all files in the resource directory, image and processor configuration, project properties,
+     * dependency artifacts and the files in the build output directory) have changed since the last run. In this case the previously generated descriptors are
+     * attached again. Switched off by default since enrichers which look up information from outside
+     * (e.g. git or the cluster) are not covered by this check.
+     */
+    @Parameter(property = "fabric8.resource.incremental", defaultValue = "false")
+    private boolean incremental;
+
+    /**
+     * Maximum size in KB of the cache for parsed resource fragments, which is kept in the
+     * working directory. Unchanged fragments are taken from this cache instead of being parsed again.
+     * Set to 0 to switch off the cache.
+     */
+    @Parameter(property = "fabric8.resource.fragmentCacheSizeK", defaultValue = "10240")
+    private int fragmentCacheSizeK;
+
+    /**
+     * Whether to write the time spent in the various steps of resource generation
+     * to <code>timings.json</code> in the working directory and to log a summary.
+     */
+    @Parameter(property = "fabric8.resource.timings", defaultValue = "false")
+    private boolean reportTimings;
+
     // Whether to use replica sets or replication controller. Could be configurable
     // but for now leave it hidden.
     private boolean useReplicaSet = true;
@@ -152,26 +209,54 @@ public class ResourceMojo extends AbstractFabric8Mojo {
     // Services
     private HandlerHub handlerHub;
 
+    // Time spent in the various generation steps
+    private Timings timings;
+
+    // Information shared by all modules of the build
+    private ReactorCache reactorCache;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
         try {
             handlerHub = new HandlerHub(project);
+            timings = new Timings();
+            reactorCache = ReactorCache.getInstance(session);
 
             // Resolve the Docker image build configuration
             resolvedImages = getResolvedImages(images, log);
 
-            // Manager for calling enrichers.
-            EnricherContext ctx = new EnricherContext(project, extractEnricherConfig(), resolvedImages, resources, log);
-            EnricherManager enricherManager = new EnricherManager(ctx);
-
             if (!skip && (!isPomProject() || hasFabric8Dir())) {
+                Fingerprint fingerprint = incremental ? createInputFingerprint(resolvedImages) : null;
+                File fingerprintFile = new File(workDir, FINGERPRINT_FILE);
+                if (fingerprint != null && fingerprint.matches(fingerprintFile) && reattachResources()) {
+                    log.info("Resource descriptors are up to date, skipping generation");
+                    return;
+                }
+
+                // Manager for calling enrichers.
+                EnricherContext ctx = new EnricherContext(project, extractEnricherConfig(), resolvedImages, resources, log,
+                                                          reactorCache);
+                long start = timings.start();
+                EnricherManager enricherManager = new EnricherManager(ctx, timings);
+                timings.stop("createEnrichers", start);
+
                 // Generate & write Kubernetes resources
                 KubernetesList kubernetesResources = generateKubernetesResources(enricherManager, resolvedImages);
                 writeResources(kubernetesResources, ResourceClassifier.KUBERNETES);
 
                 // Adapt list to use OpenShift specific resource objects
+                start = timings.start();
                 KubernetesList openShiftResources = convertToOpenShiftResources(kubernetesResources);
+                timings.stop("convertToOpenShift", start);
                 writeResources(openShiftResources, ResourceClassifier.OPENSHIFT);
+
+                if (fingerprint != null) {
+                    fingerprint.store(fingerprintFile);
+                }
+                if (reportTimings) {
+                    timings.writeTo(new File(workDir, TIMINGS_FILE));
+                    log.info("Timings: %s", timings.getSummary());
+                }
             }
         } catch (IOException e) {
             throw new MojoExecutionException("Failed to generate fabric8 descriptor", e);
@@ -179,31 +264,126 @@ public class ResourceMojo extends AbstractFabric8Mojo {
     }
 
     private ProcessorConfig extractEnricherConfig() throws IOException {
-        return ProfileUtil.extractProcesssorConfiguration(enricher,ProfileUtil.ENRICHER_CONFIG, profile, resourceDir);
+        return ProfileUtil.extractProcesssorConfiguration(enricher,ProfileUtil.ENRICHER_CONFIG, profile, resourceDir,
+                                                          reactorCache);
     }
 
     private ProcessorConfig extractGeneratorConfig() throws IOException {
-        return ProfileUtil.extractProcesssorConfiguration(generator, ProfileUtil.GENERATOR_CONFIG, profile, resourceDir);
+        return ProfileUtil.extractProcesssorConfiguration(generator, ProfileUtil.GENERATOR_CONFIG, profile, resourceDir,
+                                                          reactorCache);
+    }
+
+    // Fingerprint over everything which goes into generateKubernetesResources()
+    private Fingerprint createInputFingerprint(List<ImageConfiguration> images) throws IOException {
+        Fingerprint fingerprint = new Fingerprint();
+        fingerprint.add("project", project.getGroupId() + ":" + project.getArtifactId() + ":" +
+                                   project.getVersion() + ":" + project.getPackaging());
+        fingerprint.add("properties", project.getProperties());
+        // Enricher and generator config can be given on the command line, too
+        fingerprint.add("userProperties", session.getUserProperties(), FABRIC8_PROPERTY_PREFIXES);
+        fingerprint.add("systemProperties", System.getProperties(), FABRIC8_PROPERTY_PREFIXES);
+        fingerprint.add("pluginVersion", mojoExecution.getMojoDescriptor().getPluginDescriptor().getVersion());
+        fingerprint.add("resourceFileType", resourceFileType.name());
+        // Not only fragments and profiles, enrichers read other files from here, too (e.g. icons)
+        addFileContents(fingerprint, resourceDir, "");
+        fingerprint.add("profile", profile);
+        fingerprint.addObject("images", images);
+        fingerprint.addObject("enricher", extractEnricherConfig());
+        fingerprint.addObject("generator", extractGeneratorConfig());
+        fingerprint.addObject("resources", resources);
+        for (Artifact artifact : new TreeSet<>(project.getArtifacts())) {
+            File file = artifact.getFile();
+            fingerprint.add("artifact", artifact.getId() + (file != null ? ":" + file.length() + ":" + file.lastModified() : ""));
+        }
+        // Enrichers look up classes and configuration files (like application.properties) in the build output
+        addFileListing(fingerprint, new File(project.getBuild().getOutputDirectory()), "");
+        return fingerprint;
+    }
+
+    // Add path and content of every file below a directory
+    private void addFileContents(Fingerprint fingerprint, File dir, String path) throws IOException {
+        for (File file : listSorted(dir)) {
+            String relativePath = path + file.getName();
+            if (file.isDirectory()) {
+                addFileContents(fingerprint, file, relativePath + "/");
+            } else {
+                fingerprint.add("resourceDir", relativePath);
+                fingerprint.add("resourceDirFile", file);
+            }
+        }
+    }
+
+    // Add path, size and modification time of every file below a directory. Cheaper than hashing
+    // the content of all classes.
+    private void addFileListing(Fingerprint fingerprint, File dir, String path) {
+        for (File file : listSorted(dir)) {
+            String relativePath = path + file.getName();
+            if (file.isDirectory()) {
+                addFileListing(fingerprint, file, relativePath + "/");
+            } else {
+                fingerprint.add("outputDir", relativePath + ":" + file.length() + ":" + file.lastModified());
+            }
+        }
+    }
+
+    private File[] listSorted(File dir) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return new File[0];
+        }
+        Arrays.sort(files);
+        return files;
+    }
+
+    // Attach the descriptors of a previous run. Returns false if any of them is missing
+    private boolean reattachResources() {
+        List<File> files = new ArrayList<>();
+        for (ResourceClassifier classifier : ResourceClassifier.values()) {
+            File base = new File(this.targetDir, classifier.getValue());
+            files.add(resourceFileType.addExtension(base));
+            if (resourceFileType.equals(yaml)) {
+                files.add(json.addExtension(base));
+            }
+        }
+        for (File file : files) {
+            if (!file.isFile()) {
+                return false;
+            }
+        }
+        for (ResourceClassifier classifier : ResourceClassifier.values()) {
+            File base = new File(this.targetDir, classifier.getValue());
+            projectHelper.attachArtifact(project, artifactType, classifier.getValue(), resourceFileType.addExtension(base));
+            if (resourceFileType.equals(yaml)) {
+                projectHelper.attachArtifact(project, artifactType, classifier.getValue(), json.addExtension(base));
+            }
+        }
+        return true;
     }
 
     private void writeResources(KubernetesList resources, ResourceClassifier classifier) throws IOException {
         // write kubernetes.yml / openshift.yml
+        long writeStart = timings.start();
+        long start = writeStart;
         File resourceFileBase = new File(this.targetDir, classifier.getValue());
-        File file = KubernetesResourceUtil.writeResource(resources, resourceFileBase, resourceFileType);
-
-        // Attach it to the Maven reactor so that it will also get deployed
-        projectHelper.attachArtifact(project, artifactType, classifier.getValue(), file);
 
-        if (resourceFileType.equals(yaml)) {
-            // lets generate JSON too to aid migration from version 2.x to 3.x for packaging templates
-            file = KubernetesResourceUtil.writeResource(resources, resourceFileBase, json);
+        // For yaml lets generate JSON too to aid migration from version 2.x to 3.x for packaging templates.
+        // Both are written from a single serialization pass.
+        ResourceFileType[] fileTypes = resourceFileType.equals(yaml) ?
+            new ResourceFileType[] { yaml, json } :
+            new ResourceFileType[] { resourceFileType };
+        File[] files = KubernetesResourceUtil.writeResource(resources, resourceFileBase, fileTypes);
+        timings.stop("write/" + classifier.getValue(), start);
 
-            // Attach it to the Maven reactor so that it will also get deployed
+        // Attach it to the Maven reactor so that it will also get deployed
+        for (File file : files) {
             projectHelper.attachArtifact(project, artifactType, classifier.getValue(), file);
         }
 
         // write separate files, one for each resource item
+        start = timings.start();
         writeIndividualResources(resources, resourceFileBase);
+        timings.stop("write/" + classifier.getValue() + "-items", start);
+        timings.stop("write", writeStart);
     }
 
 
@@ -221,28 +401,35 @@ public class ResourceMojo extends AbstractFabric8Mojo {
     }
 
 
-    // Converts the kubernetes resources into OpenShift resources
-    private KubernetesList convertToOpenShiftResources(KubernetesList resources) {
-        KubernetesListBuilder builder = new KubernetesListBuilder();
-        builder.withMetadata(resources.getMetadata());
+    // Converts the kubernetes resources into OpenShift resources. The returned list shares all items which
+    // are the same for OpenShift with the given list, only controllers are converted. The conversion is done
+    // right away since the list is written out immediately. The Kubernetes resources must not be modified
+    // afterwards.
+    // Package private for benchmarking.
+    static KubernetesList convertToOpenShiftResources(KubernetesList resources) {
         List<HasMetadata> items = resources.getItems();
+        List<HasMetadata> openShiftItems = new ArrayList<>();
         if (items != null) {
             for (HasMetadata item : items) {
-                HasMetadata openshiftItem = convertKubernetesItemToOpenShift(item);
-                if (openshiftItem != null) {
-                    builder.addToItems(openshiftItem);
-                }
+                openShiftItems.add(item instanceof ReplicaSet || item instanceof Deployment ?
+                                       convertKubernetesItemToOpenShift(item) : item);
             }
         }
-        return builder.build();
+        // Not using a KubernetesListBuilder here since it would rebuild every item
+        KubernetesList ret = new KubernetesList();
+        ret.setApiVersion(resources.getApiVersion());
+        ret.setKind(resources.getKind());
+        ret.setMetadata(resources.getMetadata());
+        ret.setItems(openShiftItems);
+        return ret;
     }
 
     /**
      * Converts any kubernetes resource to the OpenShift equivalent
      *
-     * @return the converted kubernetes resource or null if it should be ignored
+     * @return the converted kubernetes resource or the resource itself if it needs no conversion, never null
      */
-    private HasMetadata convertKubernetesItemToOpenShift(HasMetadata item) {
+    private static HasMetadata convertKubernetesItemToOpenShift(HasMetadata item) {
         if (item instanceof ReplicaSet) {
             ReplicaSet resource = (ReplicaSet) item;
             ReplicationControllerBuilder builder = new ReplicationControllerBuilder();
@@ -349,7 +536,7 @@ public class ResourceMojo extends AbstractFabric8Mojo {
                 @Override
                 public List<ImageConfiguration> customizeConfig(List<ImageConfiguration> configs) {
                     try {
-                        return GeneratorManager.generate(configs, extractGeneratorConfig(), project, log);
+                        return GeneratorManager.generate(configs, extractGeneratorConfig(), project, log, reactorCache);
                     } catch (IOException e) {
                         throw new IllegalArgumentException("Cannot extract generator: " + e,e);
                     }
@@ -392,7 +579,9 @@ public class ResourceMojo extends AbstractFabric8Mojo {
 
     private KubernetesList generateKubernetesResources(final EnricherManager enricherManager, List<ImageConfiguration> images)
         throws IOException, MojoExecutionException {
+        long start = timings.start();
         File[] resourceFiles = KubernetesResourceUtil.listResourceFragments(resourceDir);
+        timings.stop("listFragments", start);
         ReplicationControllerHandler rcHandler = handlerHub.getReplicationControllerHandler();
 
         KubernetesListBuilder builder;
@@ -400,54 +589,128 @@ public class ResourceMojo extends AbstractFabric8Mojo {
         // Add resource files found in the fabric8 directory
         if (resourceFiles != null && resourceFiles.length > 0) {
             log.info("Using resource templates from %s", resourceDir);
-            builder = KubernetesResourceUtil.readResourceFragmentsFrom(
-                KubernetesResourceUtil.API_VERSION,
-                KubernetesResourceUtil.API_EXTENSIONS_VERSION,
-                filterFiles(resourceFiles));
+            FragmentCache fragmentCache = fragmentCacheSizeK > 0 ?
+                new FragmentCache(new File(workDir, FRAGMENT_CACHE_DIR), fragmentCacheSizeK * 1024L) :
+                null;
+            builder = new KubernetesListBuilder().withItems(readFilteredFragments(resourceFiles, fragmentCache));
+            if (fragmentCache != null) {
+                fragmentCache.trim();
+                log.info("Fragment cache: %d hits, %d misses", fragmentCache.getHits(), fragmentCache.getMisses());
+            }
         } else {
             builder = new KubernetesListBuilder();
         }
 
         // Add services + replicaSet if configured in plugin config
         if (resources != null) {
+            start = timings.start();
             log.info("Adding resources from plugin configuration");
             addServices(builder, resources.getServices(), resources.getAnnotations().getService());
             // TODO: Change to ReplicaSet ...
             builder.addToReplicationControllerItems(rcHandler.getReplicationController(resources, images));
+            timings.stop("resourceConfig", start);
         }
 
         // Add default resources
         enricherManager.addDefaultResources(builder);
 
-        // Enrich labels
-        enricherManager.enrichLabels(builder);
-
-        // Add missing selectors
-        enricherManager.addMissingSelectors(builder);
+        // Enrich labels and add missing selectors
+        enricherManager.enrichLabelsAndSelectors(builder);
 
         // Final customization step
         enricherManager.adapt(builder);
 
-        return builder.build();
+        start = timings.start();
+        KubernetesList ret = builder.build();
+        timings.stop("build", start);
+        return ret;
+    }
+
+    // Filter the fragments in memory and parse them. A fragment whose source and referenced properties didn't change
+    // since it has been read the last time is taken directly from the cache without filtering and parsing it again.
+    private List<HasMetadata> readFilteredFragments(File[] resourceFiles, FragmentCache cache)
+        throws IOException, MojoExecutionException {
+        HasMetadata[] items = new HasMetadata[resourceFiles.length];
+        String[] filterKeys = new String[resourceFiles.length];
+        Map<File, byte[]> toParse = new LinkedHashMap<>();
+        for (int i = 0; i < resourceFiles.length; i++) {
+            File resource = resourceFiles[i];
+            byte[] source = java.nio.file.Files.readAllBytes(resource.toPath());
+            if (cache != null) {
+                filterKeys[i] = createFilterKey(cache, resource, source);
+                if (filterKeys[i] != null) {
+                    items[i] = cache.get(filterKeys[i]);
+                    if (items[i] != null) {
+                        continue;
+                    }
+                }
+            }
+            long start = timings.start();
+            toParse.put(resource, filterFragment(resource, source));
+            timings.stop("filterFragments", start);
+        }
+
+        long start = timings.start();
+        Iterator<HasMetadata> parsed =
+            KubernetesResourceUtil.readResourceFragments(KubernetesResourceUtil.API_VERSION,
+                                                         KubernetesResourceUtil.API_EXTENSIONS_VERSION,
+                                                         toParse, cache).iterator();
+        timings.stop("parseFragments", start);
+        for (int i = 0; i < items.length; i++) {
+            if (items[i] == null) {
+                items[i] = parsed.next();
+                if (filterKeys[i] != null) {
+                    cache.put(filterKeys[i], items[i]);
+                }
+            }
+        }
+        return Arrays.asList(items);
     }
 
-    private File[] filterFiles(File[] resourceFiles) throws MojoExecutionException {
-        if (!workDir.exists()) {
-            if (!workDir.mkdirs()) {
-                throw new MojoExecutionException("Cannot create working dir " + workDir);
+    private byte[] filterFragment(File resource, byte[] source) throws MojoExecutionException, IOException {
+        Reader in = new InputStreamReader(new ByteArrayInputStream(source), FRAGMENT_ENCODING);
+        try (Reader reader = mavenReaderFilter.filter(in, true, project, null, false, session)) {
+            StringBuilder ret = new StringBuilder(source.length);
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                ret.append(buffer, 0, read);
             }
+            return ret.toString().getBytes(FRAGMENT_ENCODING);
+        } catch (MavenFilteringException exp) {
+            throw new MojoExecutionException(String.format("Cannot filter %s", resource), exp);
         }
-        File[] ret = new File[resourceFiles.length];
-        int i = 0;
-        for (File resource : resourceFiles) {
-            File targetFile = new File(workDir, resource.getName());
+    }
+
+    // Key over the fragment's source and the current value of all expressions referenced in it. Returns
+    // null if an expression can't be evaluated, in which case the fragment is always filtered.
+    private String createFilterKey(FragmentCache cache, File resource, byte[] source) throws IOException {
+        String text = new String(source, FRAGMENT_ENCODING);
+        ByteArrayOutputStream keyContent = new ByteArrayOutputStream(source.length + 256);
+        keyContent.write(source);
+        PluginParameterExpressionEvaluator evaluator = new PluginParameterExpressionEvaluator(session, mojoExecution);
+        for (String expression : extractFilterExpressions(text)) {
+            Object value;
             try {
-                mavenFileFilter.copyFile(resource, targetFile, true,
-                                         project, null, false, "utf8", session);
-                ret[i++] = targetFile;
-            } catch (MavenFilteringException exp) {
-                throw new MojoExecutionException(
-                    String.format("Cannot filter %s to %s", resource, targetFile), exp);
+                value = evaluator.evaluate("${" + expression + "}");
+            } catch (ExpressionEvaluationException e) {
+                return null;
+            }
+            if (value == null) {
+                return null;
+            }
+            keyContent.write(("\n" + expression + "=" + value).getBytes(FRAGMENT_ENCODING));
+        }
+        return cache.createKey("filtered:" + resource.getName(), keyContent.toByteArray(),
+                               KubernetesResourceUtil.API_VERSION, KubernetesResourceUtil.API_EXTENSIONS_VERSION);
+    }
+
+    private Set<String> extractFilterExpressions(String text) {
+        Set<String> ret = new TreeSet<>();
+        for (Pattern pattern : FILTER_EXPRESSION_PATTERNS) {
+            Matcher matcher = pattern.matcher(text);
+            while (matcher.find()) {
+                ret.add(matcher.group(1));
             }
         }
         return ret;
@@ -19,14 +19,15 @@ package io.fabric8.maven.plugin.enricher;
 import java.util.ArrayList;
 import java.util.List;
 
-import io.fabric8.kubernetes.api.builder.TypedVisitor;
 import io.fabric8.kubernetes.api.model.*;
 import io.fabric8.kubernetes.api.model.extensions.ReplicaSetBuilder;
 import io.fabric8.kubernetes.api.model.extensions.ReplicaSetSpec;
 import io.fabric8.maven.core.util.Configs;
 import io.fabric8.maven.docker.config.ImageConfiguration;
 import io.fabric8.maven.enricher.api.BaseEnricher;
+import io.fabric8.maven.enricher.api.DispatchingVisitor;
 import io.fabric8.maven.enricher.api.EnricherContext;
+import io.fabric8.maven.enricher.api.EnricherVisitor;
 import io.fabric8.utils.Strings;
 
 import static io.fabric8.maven.core.handler.Containers.getKubernetesContainerName;
@@ -53,19 +54,19 @@ public class DefaultImageEnricher extends BaseEnricher {
     @Override
     public void addDefaultResources(KubernetesListBuilder builder) {
 
-        builder.accept(new TypedVisitor<ReplicationControllerBuilder>() {
-            @Override
-            public void visit(ReplicationControllerBuilder item) {
-                getOrCreateContainerList(item);
-            }
-        });
-
-        builder.accept(new TypedVisitor<ReplicaSetBuilder>() {
-            @Override
-            public void visit(ReplicaSetBuilder item) {
-                getOrCreateContainerList(item);
-            }
-        });
+        builder.accept(new DispatchingVisitor(
+            new EnricherVisitor<ReplicationControllerBuilder>(ReplicationControllerBuilder.class) {
+                @Override
+                public void visit(ReplicationControllerBuilder item) {
+                    getOrCreateContainerList(item);
+                }
+            },
+            new EnricherVisitor<ReplicaSetBuilder>(ReplicaSetBuilder.class) {
+                @Override
+                public void visit(ReplicaSetBuilder item) {
+                    getOrCreateContainerList(item);
+                }
+            }));
     }
 
 
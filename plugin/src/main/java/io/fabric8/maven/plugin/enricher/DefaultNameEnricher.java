@@ -16,7 +16,6 @@
 
 package io.fabric8.maven.plugin.enricher;
 
-import io.fabric8.kubernetes.api.builder.TypedVisitor;
 import io.fabric8.kubernetes.api.builder.Visitor;
 import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.KubernetesListBuilder;
@@ -29,7 +28,9 @@ import io.fabric8.kubernetes.api.model.extensions.ReplicaSetBuilder;
 import io.fabric8.kubernetes.api.model.extensions.ReplicaSetFluent;
 import io.fabric8.maven.core.util.MavenUtil;
 import io.fabric8.maven.enricher.api.BaseEnricher;
+import io.fabric8.maven.enricher.api.DispatchingVisitor;
 import io.fabric8.maven.enricher.api.EnricherContext;
+import io.fabric8.maven.enricher.api.EnricherVisitor;
 import io.fabric8.utils.Strings;
 
 /**
@@ -46,56 +47,56 @@ public class DefaultNameEnricher extends BaseEnricher {
     public void addDefaultResources(KubernetesListBuilder builder) {
         final String defaultName = getConfig(null, MavenUtil.createDefaultResourceName(getProject()));
 
-        builder.accept(new TypedVisitor<HasMetadata>() {
-            @Override
-            public void visit(HasMetadata resource) {
-                ObjectMeta metadata = getOrCreateMetadata(resource);
-                if (Strings.isNullOrBlank(metadata.getName())) {
-                    metadata.setName(defaultName);
-                }
-            }
-        });
-
-        // TODO not sure why this is required for Deployment?
-        builder.accept(new TypedVisitor<DeploymentBuilder>() {
-            @Override
-            public void visit(DeploymentBuilder resource) {
-                DeploymentFluent.MetadataNested<DeploymentBuilder> metadata = resource.editMetadata();
-                if (metadata == null) {
-                    resource.withNewMetadata().withName(defaultName).endMetadata();
-                } else {
+        builder.accept(new DispatchingVisitor(
+            new EnricherVisitor<HasMetadata>(HasMetadata.class) {
+                @Override
+                public void visit(HasMetadata resource) {
+                    ObjectMeta metadata = getOrCreateMetadata(resource);
                     if (Strings.isNullOrBlank(metadata.getName())) {
-                        metadata.withName(defaultName).endMetadata();
+                        metadata.setName(defaultName);
                     }
                 }
-            }
-        });
-        builder.accept(new TypedVisitor<ReplicationControllerBuilder>() {
-            @Override
-            public void visit(ReplicationControllerBuilder resource) {
-                ReplicationControllerFluent.MetadataNested<ReplicationControllerBuilder> metadata = resource.editMetadata();
-                if (metadata == null) {
-                    resource.withNewMetadata().withName(defaultName).endMetadata();
-                } else {
-                    if (Strings.isNullOrBlank(metadata.getName())) {
-                        metadata.withName(defaultName).endMetadata();
+            },
+            // TODO not sure why this is required for Deployment?
+            new EnricherVisitor<DeploymentBuilder>(DeploymentBuilder.class) {
+                @Override
+                public void visit(DeploymentBuilder resource) {
+                    DeploymentFluent.MetadataNested<DeploymentBuilder> metadata = resource.editMetadata();
+                    if (metadata == null) {
+                        resource.withNewMetadata().withName(defaultName).endMetadata();
+                    } else {
+                        if (Strings.isNullOrBlank(metadata.getName())) {
+                            metadata.withName(defaultName).endMetadata();
+                        }
                     }
                 }
-            }
-        });
-        builder.accept(new TypedVisitor<ReplicaSetBuilder>() {
-            @Override
-            public void visit(ReplicaSetBuilder resource) {
-                ReplicaSetFluent.MetadataNested<ReplicaSetBuilder> metadata = resource.editMetadata();
-                if (metadata == null) {
-                    resource.withNewMetadata().withName(defaultName).endMetadata();
-                } else {
-                    if (Strings.isNullOrBlank(metadata.getName())) {
-                        metadata.withName(defaultName).endMetadata();
+            },
+            new EnricherVisitor<ReplicationControllerBuilder>(ReplicationControllerBuilder.class) {
+                @Override
+                public void visit(ReplicationControllerBuilder resource) {
+                    ReplicationControllerFluent.MetadataNested<ReplicationControllerBuilder> metadata = resource.editMetadata();
+                    if (metadata == null) {
+                        resource.withNewMetadata().withName(defaultName).endMetadata();
+                    } else {
+                        if (Strings.isNullOrBlank(metadata.getName())) {
+                            metadata.withName(defaultName).endMetadata();
+                        }
+                    }
+                }
+            },
+            new EnricherVisitor<ReplicaSetBuilder>(ReplicaSetBuilder.class) {
+                @Override
+                public void visit(ReplicaSetBuilder resource) {
+                    ReplicaSetFluent.MetadataNested<ReplicaSetBuilder> metadata = resource.editMetadata();
+                    if (metadata == null) {
+                        resource.withNewMetadata().withName(defaultName).endMetadata();
+                    } else {
+                        if (Strings.isNullOrBlank(metadata.getName())) {
+                            metadata.withName(defaultName).endMetadata();
+                        }
                     }
                 }
-            }
-        });
+            }));
     }
 
     private ObjectMeta getOrCreateMetadata(HasMetadata resource) {
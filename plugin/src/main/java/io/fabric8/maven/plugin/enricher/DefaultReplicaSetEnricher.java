@@ -16,7 +16,6 @@
 
 package io.fabric8.maven.plugin.enricher;
 
-import io.fabric8.kubernetes.api.builder.TypedVisitor;
 import io.fabric8.kubernetes.api.model.Container;
 import io.fabric8.kubernetes.api.model.EnvVar;
 import io.fabric8.kubernetes.api.model.HasMetadata;
@@ -35,6 +34,7 @@ import io.fabric8.maven.core.util.Configs;
 import io.fabric8.maven.core.util.MavenUtil;
 import io.fabric8.maven.enricher.api.BaseEnricher;
 import io.fabric8.maven.enricher.api.EnricherContext;
+import io.fabric8.maven.enricher.api.EnricherVisitor;
 import io.fabric8.utils.Strings;
 
 import java.util.ArrayList;
@@ -92,7 +92,7 @@ public class DefaultReplicaSetEnricher extends BaseEnricher {
                 if (template != null) {
                     final PodSpec podSpec = template.getSpec();
                     if (podSpec != null) {
-                        builder.accept(new TypedVisitor<PodSpecBuilder>() {
+                        builder.accept(new EnricherVisitor<PodSpecBuilder>(PodSpecBuilder.class) {
                             @Override
                             public void visit(PodSpecBuilder builder) {
                                 mergePodSpec(builder, podSpec, defaultName);
@@ -21,7 +21,6 @@ import java.util.List;
 import java.util.Objects;
 
 import io.fabric8.kubernetes.api.KubernetesHelper;
-import io.fabric8.kubernetes.api.builder.TypedVisitor;
 import io.fabric8.kubernetes.api.model.*;
 import io.fabric8.maven.core.util.Configs;
 import io.fabric8.maven.core.config.ServiceConfig;
@@ -33,6 +32,7 @@ import io.fabric8.maven.docker.config.BuildImageConfiguration;
 import io.fabric8.maven.docker.config.ImageConfiguration;
 import io.fabric8.maven.enricher.api.BaseEnricher;
 import io.fabric8.maven.enricher.api.EnricherContext;
+import io.fabric8.maven.enricher.api.EnricherVisitor;
 import io.fabric8.utils.Strings;
 import org.apache.maven.shared.utils.StringUtils;
 
@@ -72,7 +72,7 @@ public class DefaultServiceEnricher extends BaseEnricher {
         final Service defaultService = serviceHandler.getService(defaultServiceConfig,null);
 
         if (hasServices(builder)) {
-            builder.accept(new TypedVisitor<ServiceBuilder>() {
+            builder.accept(new EnricherVisitor<ServiceBuilder>(ServiceBuilder.class) {
                 @Override
                 public void visit(ServiceBuilder service) {
                     mergeServices(service, defaultService);
@@ -17,14 +17,21 @@
 package io.fabric8.maven.plugin.enricher;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import io.fabric8.kubernetes.api.model.KubernetesListBuilder;
 import io.fabric8.maven.core.config.ProcessorConfig;
 import io.fabric8.maven.core.util.PluginServiceFactory;
+import io.fabric8.maven.core.util.Timings;
 import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.maven.enricher.api.DispatchingVisitor;
 import io.fabric8.maven.enricher.api.Enricher;
 import io.fabric8.maven.enricher.api.EnricherContext;
+import io.fabric8.maven.enricher.api.EnricherVisitor;
 import io.fabric8.maven.enricher.api.Kind;
+import io.fabric8.maven.enricher.api.ParallelSafeEnricher;
+import io.fabric8.maven.enricher.api.PrefetchingEnricher;
 
 import static io.fabric8.maven.plugin.enricher.EnricherManager.Extractor.*;
 
@@ -42,21 +49,57 @@ public class EnricherManager {
 
     private Logger log;
 
+    // Time spent in the various phases and enrichers
+    private final Timings timings;
+
+    // Used for calling parallel safe enrichers and for prefetching, created on demand
+    private ExecutorService executor;
+
+    // Background tasks started by the enrichers when the manager is created
+    private final List<Future<?>> prefetches = new ArrayList<>();
+
+    // Labels, annotations and selectors are the same for every resource of a given kind,
+    // so they are collected only once per kind
+    private final Map<Extractor, Map<Kind, Map<String, String>>> extractCache = new EnumMap<>(Extractor.class);
+
     // List of visitors used to enrich with labels
     private final List<? extends MetadataEnricherVisitor<?>> metaDataEnricherVisitors;
     private final List<? extends SelectorVisitor<?>> selectorVisitors;
 
+    // Visitor applying labels and selectors in a single traversal
+    private final DispatchingVisitor metaDataAndSelectorVisitor;
+
     public EnricherManager(EnricherContext buildContext) {
-        PluginServiceFactory<EnricherContext> pluginFactory = new PluginServiceFactory<>(buildContext);
+        this(buildContext, new Timings());
+    }
+
+    public EnricherManager(EnricherContext buildContext, Timings timings) {
+        this.timings = timings;
+        PluginServiceFactory<EnricherContext> pluginFactory = new PluginServiceFactory<>(buildContext, buildContext.getReactorCache());
 
         log = buildContext.getLog();
         enricherConfig = buildContext.getConfig();
 
-        enrichers = pluginFactory.createServiceObjects("META-INF/fabric8-enricher-default",
-                                                       "META-INF/fabric8/enricher-default",
-                                                       "META-INF/fabric8-enricher",
-                                                       "META-INF/fabric8/enricher");
-        Collections.reverse(enrichers);
+        // Only enrichers which are used are created
+        List<PluginServiceFactory.LazyService<Enricher>> enricherHandles =
+            pluginFactory.createLazyServiceObjects("META-INF/fabric8-enricher-default",
+                                                   "META-INF/fabric8/enricher-default",
+                                                   "META-INF/fabric8-enricher",
+                                                   "META-INF/fabric8/enricher");
+        Collections.reverse(enricherHandles);
+        enrichers = new ArrayList<>();
+        for (PluginServiceFactory.LazyService<Enricher> handle : enricherHandles) {
+            if (enricherConfig.use(handle.getName())) {
+                enrichers.add(handle.get());
+            }
+        }
+
+        // Let enrichers start slow lookups now so that they overlap with the processing of the fragments
+        for (Enricher enricher : enrichers) {
+            if (enricher instanceof PrefetchingEnricher) {
+                prefetches.addAll(((PrefetchingEnricher) enricher).prefetch(getExecutor()));
+            }
+        }
 
         metaDataEnricherVisitors = Arrays.asList(
             new MetadataEnricherVisitor.Deployment(this),
@@ -70,27 +113,24 @@ public class EnricherManager {
             new SelectorVisitor.ReplicaSet(this),
             new SelectorVisitor.ReplicationController(this),
             new SelectorVisitor.Service(this));
-    }
-
 
-    /**
-     * Enrich the given list with labels.
-     *
-     * @param builder the build to enrich with labels
-     */
-    public void enrichLabels(KubernetesListBuilder builder) {
-        visit(builder, metaDataEnricherVisitors);
+        List<EnricherVisitor<?>> allVisitors = new ArrayList<>();
+        allVisitors.addAll(metaDataEnricherVisitors);
+        allVisitors.addAll(selectorVisitors);
+        metaDataAndSelectorVisitor = new DispatchingVisitor(allVisitors);
     }
 
+
     /**
-     * Add selector when missing to services and replication controller / replica sets
+     * Enrich with labels and add missing selectors to services and replication controllers / replica sets
+     * within a single traversal.
      *
-     * @param builder builder to add selectors to.
+     * @param builder builder to enrich
      */
-    public void addMissingSelectors(KubernetesListBuilder builder) {
-        for (SelectorVisitor visitor : selectorVisitors) {
-            builder.accept(visitor);
-        }
+    public void enrichLabelsAndSelectors(KubernetesListBuilder builder) {
+        long start = timings.start();
+        builder.accept(metaDataAndSelectorVisitor);
+        timings.stop("enrichLabelsAndSelectors", start);
     }
 
     /**
@@ -99,8 +139,17 @@ public class EnricherManager {
      * @param builder builder to customize
      */
     public void adapt(KubernetesListBuilder builder) {
+        long start = timings.start();
         for (Enricher enricher : enrichers) {
+            long enricherStart = timings.start();
             enricher.adapt(builder);
+            timings.stop("adapt/" + enricher.getName(), enricherStart);
+        }
+        timings.stop("adapt", start);
+
+        // Enrichment is finished, prefetched results which haven't been asked for are not needed anymore
+        for (Future<?> prefetch : prefetches) {
+            prefetch.cancel(true);
         }
     }
 
@@ -110,9 +159,13 @@ public class EnricherManager {
      * @param builder builder to examine for missing resources and used for adding default resources to it
      */
     public void addDefaultResources(KubernetesListBuilder builder) {
+        long start = timings.start();
         for (Enricher enricher : enrichers) {
+            long enricherStart = timings.start();
             enricher.addDefaultResources(builder);
+            timings.stop("addDefaultResources/" + enricher.getName(), enricherStart);
         }
+        timings.stop("addDefaultResources", start);
     }
 
     // =============================================================================================
@@ -135,16 +188,117 @@ public class EnricherManager {
         return extract(SELECTOR_EXTRACTOR, kind);
     }
 
+    // Return a copy since callers are free to modify the returned map
     private Map<String, String> extract(Extractor extractor, Kind kind) {
-        Map <String, String> ret = new HashMap<>();
+        synchronized (extractCache) {
+            Map<Kind, Map<String, String>> kindCache = extractCache.get(extractor);
+            if (kindCache == null) {
+                kindCache = new EnumMap<>(Kind.class);
+                extractCache.put(extractor, kindCache);
+            }
+            Map<String, String> ret = kindCache.get(kind);
+            if (ret == null) {
+                ret = extractFromEnrichers(extractor, kind);
+                kindCache.put(kind, ret);
+            }
+            return new HashMap<>(ret);
+        }
+    }
+
+    // Parallel safe enrichers are called in the background while the others are called directly. The
+    // results are merged in the configured enricher order so that the precedence is always the same.
+    private Map<String, String> extractFromEnrichers(Extractor extractor, Kind kind) {
+        List<Enricher> used = new ArrayList<>();
         for (Enricher enricher : enricherConfig.order(enrichers, "enricher")) {
             if (enricherConfig.use(enricher.getName())) {
-                putAllIfNotNull(ret, extractor.extract(enricher, kind));
+                used.add(enricher);
             }
         }
+        Map<Enricher, Future<Map<String, String>>> futures = submitParallelSafeExtractions(extractor, kind, used);
+
+        Map <String, String> ret = new HashMap<>();
+        for (Enricher enricher : used) {
+            Future<Map<String, String>> future = futures.get(enricher);
+            putAllIfNotNull(ret, future != null ?
+                getExtractResult(future, enricher) :
+                timedExtract(extractor, enricher, kind));
+        }
+        return ret;
+    }
+
+    private Map<Enricher, Future<Map<String, String>>> submitParallelSafeExtractions(final Extractor extractor,
+                                                                                      final Kind kind,
+                                                                                      List<Enricher> used) {
+        Map<Enricher, Future<Map<String, String>>> ret = new IdentityHashMap<>();
+        List<Enricher> parallelSafe = new ArrayList<>();
+        for (Enricher enricher : used) {
+            if (enricher instanceof ParallelSafeEnricher) {
+                parallelSafe.add(enricher);
+            }
+        }
+        // Not worth it if there is nothing to overlap with
+        if (parallelSafe.size() < 2 && parallelSafe.size() == used.size()) {
+            return ret;
+        }
+        for (final Enricher enricher : parallelSafe) {
+            ret.put(enricher, getExecutor().submit(new Callable<Map<String, String>>() {
+                @Override
+                public Map<String, String> call() {
+                    return timedExtract(extractor, enricher, kind);
+                }
+            }));
+        }
         return ret;
     }
 
+    private Map<String, String> timedExtract(Extractor extractor, Enricher enricher, Kind kind) {
+        long start = timings.start();
+        try {
+            return extractor.extract(enricher, kind);
+        } finally {
+            timings.stop(extractor.getTimingName() + "/" + enricher.getName(), start);
+        }
+    }
+
+    private Map<String, String> getExtractResult(Future<Map<String, String>> future, Enricher enricher) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for enricher " + enricher.getName(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Enricher " + enricher.getName() + " failed: " + cause, cause);
+        }
+    }
+
+    // Bounded executor with daemon threads which time out when idle, so that it doesn't need to be shut down
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            int nThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+            ThreadPoolExecutor pool =
+                new ThreadPoolExecutor(nThreads, nThreads, 5, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                                       new ThreadFactory() {
+                                           private final AtomicInteger count = new AtomicInteger();
+                                           @Override
+                                           public Thread newThread(Runnable runnable) {
+                                               Thread thread = new Thread(runnable, "fabric8-enricher-" + count.incrementAndGet());
+                                               thread.setDaemon(true);
+                                               return thread;
+                                           }
+                                       });
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+        return executor;
+    }
+
     /**
      * Add programmatically an enricher at the end of the enricher list
      *
@@ -152,26 +306,40 @@ public class EnricherManager {
      */
     public void addEnricher(Enricher enricher) {
         enrichers.add(enricher);
+        synchronized (extractCache) {
+            extractCache.clear();
+        }
     }
 
     // ========================================================================================================
     // Simple extractors
     enum Extractor {
-        LABEL_EXTRACTOR {
+        LABEL_EXTRACTOR("getLabels") {
             public Map<String, String> extract(Enricher enricher, Kind kind) {
                 return enricher.getLabels(kind);
             }
         },
-        ANNOTATION_EXTRACTOR {
+        ANNOTATION_EXTRACTOR("getAnnotations") {
             public Map<String, String> extract(Enricher enricher, Kind kind) {
                 return enricher.getAnnotations(kind);
             }
         },
-        SELECTOR_EXTRACTOR {
+        SELECTOR_EXTRACTOR("getSelector") {
             public Map<String, String> extract(Enricher enricher, Kind kind) {
                 return enricher.getSelector(kind);
             }
         };
+
+        private final String timingName;
+
+        Extractor(String timingName) {
+            this.timingName = timingName;
+        }
+
+        String getTimingName() {
+            return timingName;
+        }
+
         abstract Map<String, String> extract(Enricher enricher, Kind kind);
     }
 
@@ -181,10 +349,4 @@ public class EnricherManager {
             ret.putAll(toPut);
         }
     }
-
-    private void visit(KubernetesListBuilder builder, List<? extends MetadataEnricherVisitor<?>> visitors) {
-        for (MetadataEnricherVisitor visitor : visitors) {
-            builder.accept(visitor);
-        }
-    }
 }
@@ -19,23 +19,23 @@ package io.fabric8.maven.plugin.enricher;
 import java.util.HashMap;
 import java.util.Map;
 
-import io.fabric8.kubernetes.api.builder.TypedVisitor;
-import io.fabric8.kubernetes.api.builder.Visitor;
 import io.fabric8.kubernetes.api.model.*;
 import io.fabric8.kubernetes.api.model.extensions.DeploymentBuilder;
 import io.fabric8.kubernetes.api.model.extensions.ReplicaSetBuilder;
+import io.fabric8.maven.enricher.api.EnricherVisitor;
 import io.fabric8.maven.enricher.api.Kind;
 
 /**
  * @author roland
  * @since 02/05/16
  */
-public abstract class MetadataEnricherVisitor<T> extends TypedVisitor<T> {
+public abstract class MetadataEnricherVisitor<T> extends EnricherVisitor<T> {
 
     private final EnricherManager enricher;
 
 
-    private MetadataEnricherVisitor(EnricherManager enricher) {
+    private MetadataEnricherVisitor(EnricherManager enricher, Class<T> type) {
+        super(type);
         this.enricher = enricher;
     }
 
@@ -69,7 +69,7 @@ public abstract class MetadataEnricherVisitor<T> extends TypedVisitor<T> {
     public static class PodTemplate extends MetadataEnricherVisitor<PodTemplateSpecBuilder> {
 
         public PodTemplate(EnricherManager enricher) {
-            super(enricher);
+            super(enricher, PodTemplateSpecBuilder.class);
         }
 
         @Override
@@ -87,7 +87,7 @@ public abstract class MetadataEnricherVisitor<T> extends TypedVisitor<T> {
     public static class Service extends MetadataEnricherVisitor<ServiceBuilder> {
 
         public Service(EnricherManager enricher) {
-            super(enricher);
+            super(enricher, ServiceBuilder.class);
         }
 
         @Override
@@ -104,7 +104,7 @@ public abstract class MetadataEnricherVisitor<T> extends TypedVisitor<T> {
 
     public static class ReplicaSet extends MetadataEnricherVisitor<ReplicaSetBuilder> {
         public ReplicaSet(EnricherManager enricher) {
-            super(enricher);
+            super(enricher, ReplicaSetBuilder.class);
         }
 
         @Override
@@ -121,7 +121,7 @@ public abstract class MetadataEnricherVisitor<T> extends TypedVisitor<T> {
 
     public static class ReplicationController extends MetadataEnricherVisitor<ReplicationControllerBuilder> {
         public ReplicationController(EnricherManager enricher) {
-            super(enricher);
+            super(enricher, ReplicationControllerBuilder.class);
         }
 
         @Override
@@ -138,7 +138,7 @@ public abstract class MetadataEnricherVisitor<T> extends TypedVisitor<T> {
 
     public static class Deployment extends MetadataEnricherVisitor<DeploymentBuilder> {
         public Deployment(EnricherManager enricher) {
-            super(enricher);
+            super(enricher, DeploymentBuilder.class);
         }
 
         @Override
@@ -22,13 +22,14 @@ import java.util.Map;
 import io.fabric8.maven.enricher.api.BaseEnricher;
 import io.fabric8.maven.enricher.api.EnricherContext;
 import io.fabric8.maven.enricher.api.Kind;
+import io.fabric8.maven.enricher.api.ParallelSafeEnricher;
 import org.apache.maven.project.MavenProject;
 
 /**
  * @author roland
  * @since 01/04/16
  */
-public class ProjectInfoEnricher extends BaseEnricher {
+public class ProjectInfoEnricher extends BaseEnricher implements ParallelSafeEnricher {
 
     public ProjectInfoEnricher(EnricherContext buildContext) {
         super(buildContext, "label.project");
@@ -16,13 +16,13 @@
 
 package io.fabric8.maven.plugin.enricher;
 
-import io.fabric8.kubernetes.api.builder.TypedVisitor;
 import io.fabric8.kubernetes.api.model.ReplicationControllerSpecBuilder;
 import io.fabric8.kubernetes.api.model.ServiceSpecBuilder;
 import io.fabric8.kubernetes.api.model.extensions.DeploymentSpecBuilder;
 import io.fabric8.kubernetes.api.model.extensions.LabelSelector;
 import io.fabric8.kubernetes.api.model.extensions.LabelSelectorBuilder;
 import io.fabric8.kubernetes.api.model.extensions.ReplicaSetSpecBuilder;
+import io.fabric8.maven.enricher.api.EnricherVisitor;
 import io.fabric8.maven.enricher.api.Kind;
 
 import java.util.Map;
@@ -33,11 +33,12 @@ import static io.fabric8.maven.plugin.enricher.ProjectInfoEnricher.removeVersion
  * @author roland
  * @since 02/05/16
  */
-public abstract class SelectorVisitor<T> extends TypedVisitor<T> {
+public abstract class SelectorVisitor<T> extends EnricherVisitor<T> {
 
     protected final EnricherManager enricher;
 
-    public SelectorVisitor(EnricherManager enricher) {
+    public SelectorVisitor(EnricherManager enricher, Class<T> type) {
+        super(type);
         this.enricher = enricher;
     }
 
@@ -48,7 +49,7 @@ public abstract class SelectorVisitor<T> extends TypedVisitor<T> {
     static public class Service extends SelectorVisitor<ServiceSpecBuilder> {
 
         public Service(EnricherManager enricher) {
-            super(enricher);
+            super(enricher, ServiceSpecBuilder.class);
         }
 
         @Override
@@ -60,7 +61,7 @@ public abstract class SelectorVisitor<T> extends TypedVisitor<T> {
     static public class Deployment extends SelectorVisitor<DeploymentSpecBuilder> {
 
         public Deployment(EnricherManager enricher) {
-            super(enricher);
+            super(enricher, DeploymentSpecBuilder.class);
         }
 
         @Override
@@ -78,7 +79,7 @@ public abstract class SelectorVisitor<T> extends TypedVisitor<T> {
     static public class ReplicationController extends SelectorVisitor<ReplicationControllerSpecBuilder> {
 
         public ReplicationController(EnricherManager enricher) {
-            super(enricher);
+            super(enricher, ReplicationControllerSpecBuilder.class);
         }
 
         @Override
@@ -90,7 +91,7 @@ public abstract class SelectorVisitor<T> extends TypedVisitor<T> {
     static public class ReplicaSet extends SelectorVisitor<ReplicaSetSpecBuilder> {
 
         public ReplicaSet(EnricherManager enricher) {
-            super(enricher);
+            super(enricher, ReplicaSetSpecBuilder.class);
         }
 
         @Override
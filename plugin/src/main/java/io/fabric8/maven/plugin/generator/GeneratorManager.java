@@ -20,6 +20,7 @@ import java.util.List;
 
 import io.fabric8.maven.core.config.ProcessorConfig;
 import io.fabric8.maven.core.util.PluginServiceFactory;
+import io.fabric8.maven.core.util.ReactorCache;
 import io.fabric8.maven.docker.util.Logger;
 import io.fabric8.maven.generator.api.Generator;
 import io.fabric8.maven.generator.api.MavenGeneratorContext;
@@ -37,11 +38,19 @@ public class GeneratorManager {
                                                     ProcessorConfig generatorConfig,
                                                     MavenProject project,
                                                     Logger log) {
+        return generate(imageConfigs, generatorConfig, project, log, null);
+    }
+
+    public static List<ImageConfiguration> generate(List<ImageConfiguration> imageConfigs,
+                                                    ProcessorConfig generatorConfig,
+                                                    MavenProject project,
+                                                    Logger log,
+                                                    ReactorCache reactorCache) {
 
         List<ImageConfiguration> ret = imageConfigs;
 
         PluginServiceFactory<MavenGeneratorContext> pluginFactory = new PluginServiceFactory<>(
-            new MavenGeneratorContext(project, generatorConfig));
+            new MavenGeneratorContext(project, generatorConfig), reactorCache);
         List<Generator> generators =
             pluginFactory.createServiceObjects("META-INF/fabric8/generator-default",
                                                "META-INF/fabric8/fabric8-generator-default",